@@ -53,7 +53,7 @@ public class ClientApp {
       // Start accepting user input for key-value store operations
       do {
         System.out.println("Waiting for user input");
-        System.out.println("Please Enter \"PUT/GET/DELETE Key Value\" or enter \"quit\" to exit the application:");
+        System.out.println("Please Enter \"PUT/GET/DELETE Key Value [TTLSeconds]\", \"MGET Key1,Key2 [Version]\", \"SCAN Prefix\", \"RANGE StartKey EndKey\", \"HOTKEYS Count\", \"IMPORT/EXPORT File\" or enter \"quit\" to exit the application:");
         String input = scanner.nextLine();
 
         // Check if user wants to quit
@@ -65,10 +65,17 @@ public class ClientApp {
         // Process user input and send request to server
         String[] parts = input.split(" ");
         if (((parts[0].equalsIgnoreCase("DELETE") ||
-                parts[0].equalsIgnoreCase("GET")) && parts.length == 2) || parts.length == 3) {
+                parts[0].equalsIgnoreCase("GET") ||
+                parts[0].equalsIgnoreCase("MGET") ||
+                parts[0].equalsIgnoreCase("IMPORT") ||
+                parts[0].equalsIgnoreCase("EXPORT") ||
+                parts[0].equalsIgnoreCase("SCAN")) && parts.length == 2) ||
+                (parts[0].equalsIgnoreCase("HOTKEYS") && parts.length == 2 && parts[1].matches("\\d+")) ||
+                parts.length == 3 ||
+                (parts[0].equalsIgnoreCase("PUT") && parts.length == 4 && parts[3].matches("\\d+"))) {
           client.sendRequest(input);
         } else {
-          System.out.println("Invalid input format. Please follow \"PUT/GET/DELETE Key Value\" format.");
+          System.out.println("Invalid input format. Please follow \"PUT/GET/DELETE Key Value [TTLSeconds]\", \"MGET Key1,Key2 [Version]\", \"SCAN Prefix\", \"RANGE StartKey EndKey\", \"HOTKEYS Count\" or \"IMPORT/EXPORT File\" format.");
           logger.warn("Invalid input format received from user: " + input);
         }
       } while (true);
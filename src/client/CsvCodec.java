@@ -0,0 +1,102 @@
+package client;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads and writes the "key,value" records used by IMPORT and EXPORT.
+ *
+ * <p>A field containing a comma, a double quote or a line break is written in double quotes, with
+ * embedded quotes doubled, so any key and value survive a round trip. When reading, an unquoted value
+ * runs to the end of the line, commas included, so hand-written files need no quoting.
+ */
+public final class CsvCodec {
+
+    private CsvCodec() {
+    }
+
+    /**
+     * Encodes one record as a line of CSV, without the line terminator.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The encoded record.
+     */
+    public static String encode(String key, String value) {
+        return quoteIfNeeded(key) + ',' + quoteIfNeeded(value);
+    }
+
+    /**
+     * Reads the next record, which may span several lines when a quoted field holds line breaks.
+     * Empty lines are skipped.
+     *
+     * @param reader The reader positioned at the start of a record.
+     * @return The key and value, with a null value if the record has no comma, or null at the end of input.
+     * @throws IOException if reading fails or a quoted field is malformed.
+     */
+    public static String[] readRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        while (c == '\n' || c == '\r') {
+            c = reader.read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        if (readField(reader, c, key, true) != ',') {
+            return new String[]{key.toString(), null};
+        }
+        StringBuilder value = new StringBuilder();
+        readField(reader, reader.read(), value, false);
+        return new String[]{key.toString(), value.toString()};
+    }
+
+    private static String quoteIfNeeded(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Reads one field starting with the given character.
+     *
+     * @param stopAtComma true if an unquoted comma ends the field, false if it runs to the end of the line.
+     * @return The character that ended the field: a comma, a line feed or -1 at the end of input.
+     */
+    private static int readField(BufferedReader reader, int first, StringBuilder field, boolean stopAtComma)
+            throws IOException {
+        int c = first;
+        if (c == '"') {
+            while (true) {
+                c = reader.read();
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field: " + field);
+                }
+                if (c == '"') {
+                    c = reader.read();
+                    if (c != '"') {
+                        break; // Closing quote
+                    }
+                }
+                field.append((char) c);
+            }
+            if (c == '\r') {
+                c = reader.read();
+            }
+            if (c == '\n' || c == -1 || (c == ',' && stopAtComma)) {
+                return c;
+            }
+            throw new IOException("Unexpected character after quoted field: " + field);
+        }
+        while (c != -1 && c != '\n' && !(c == ',' && stopAtComma)) {
+            field.append((char) c);
+            c = reader.read();
+        }
+        int end = field.length() - 1;
+        if (end >= 0 && field.charAt(end) == '\r') {
+            field.setLength(end);
+        }
+        return c;
+    }
+}
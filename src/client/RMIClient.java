@@ -1,16 +1,30 @@
 package client;
 
+import server.HotKeyReport;
 import server.KeyValueService;
+import server.ScanPage;
+import server.SnapshotRead;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.rmi.Naming;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Random;
 
 /**
  * RMIClient class represents a client using RMI protocol to interact with a KeyValueService.
  */
 public class RMIClient {
+    private static final int SCAN_PAGE_SIZE = 100; // Entries fetched per scan round trip
+    private static final int BULK_CHUNK_SIZE = 5000; // Entries sent per bulk load transaction
+    private static final int EXPORT_PAGE_SIZE = 1000; // Entries fetched per export round trip
     private String clientId;
     private static final ClientLogger logger = new ClientLogger();
     private KeyValueService keyValueService;
@@ -45,11 +59,22 @@ public class RMIClient {
      * @param value The value associated with the key.
      */
     public void put(String key, String value) {
+        put(key, value, 0);
+    }
+
+    /**
+     * Sends a PUT request to the server for a key that expires after the given TTL.
+     *
+     * @param key       The key to be inserted.
+     * @param value     The value associated with the key.
+     * @param ttlMillis The time to live in milliseconds, or 0 if the key never expires.
+     */
+    public void put(String key, String value, long ttlMillis) {
         try {
             keyValueService.requestTxn(0);
             keyValueService.replicateOtherParticipants();
             String packetId = String.valueOf(System.currentTimeMillis());
-            boolean result = keyValueService.putValue(key, value, packetId, clientId);
+            boolean result = keyValueService.putValue(key, value, ttlMillis, packetId, clientId);
             if(result){
                 logger.info("PUT: Key=" + key + ", Value=" + value + ", PacketID=" + packetId + ", Result=" + " Insertion Successful");
             }else{
@@ -68,15 +93,12 @@ public class RMIClient {
      */
     public void get(String key) {
         try {
-            keyValueService.requestTxn(0);
-            keyValueService.replicateOtherParticipants();
+            // Reads are served from the committed state, so no transaction is requested
             String packetId = String.valueOf(System.currentTimeMillis());
             String result = keyValueService.getValue(key, packetId, clientId);
             if (result.equals("null")) {
                 result = "Key not found";
                 logger.info("Key not found");
-            }else if (result.equals("abort")){
-                result = "Get operation is aborted";
             }
             logger.info("GET: Key=" + key + ", PacketID=" + packetId + ", Retrieved value = " + result);
         } catch (Exception e) {
@@ -102,6 +124,157 @@ public class RMIClient {
         }
     }
 
+    /**
+     * Sends an MGET request that reads several keys from one consistent snapshot.
+     *
+     * @param keys    The keys to read.
+     * @param version The commit version to read at, or 0 for the latest version.
+     */
+    public void multiGet(String[] keys, long version) {
+        try {
+            String packetId = String.valueOf(System.currentTimeMillis());
+            SnapshotRead result = keyValueService.readSnapshot(Arrays.asList(keys), version, packetId, clientId);
+            logger.info("MGET: Keys=" + Arrays.toString(keys) + ", PacketID=" + packetId + ", Version=" +
+                    result.getVersion() + ", Retrieved values = " + result.getValues());
+        } catch (Exception e) {
+            logger.error("Error sending MGET request: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends a HOTKEYS admin query and logs the participant's hottest and most contended keys.
+     *
+     * @param k The number of keys to report in each list.
+     */
+    public void hotKeys(int k) {
+        try {
+            HotKeyReport report = keyValueService.getHotKeyReport(k);
+            logger.info("HOTKEYS: Hottest keys = " + report.getHottestKeys());
+            logger.info("HOTKEYS: Most contended keys (wait ns) = " + report.getMostContendedKeys());
+            logger.info("HOTKEYS: Lock waits = " + report.getLocks());
+        } catch (Exception e) {
+            logger.error("Error sending HOTKEYS request: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends paged SCAN requests for all keys starting with the given prefix. Each page is logged as it
+     * arrives, so the full result is never held in memory.
+     *
+     * @param prefix The key prefix to scan.
+     */
+    public void scan(String prefix) {
+        try {
+            String token = null;
+            int count = 0;
+            do {
+                ScanPage page = keyValueService.scanPrefix(prefix, token, SCAN_PAGE_SIZE);
+                for (Map.Entry<String, String> entry : page.getEntries().entrySet()) {
+                    logger.info("SCAN: Key=" + entry.getKey() + ", Value=" + entry.getValue());
+                }
+                count += page.getEntries().size();
+                token = page.getContinuationToken();
+            } while (token != null);
+            logger.info("SCAN: Prefix=" + prefix + ", Result=" + count + " keys found");
+        } catch (Exception e) {
+            logger.error("Error sending SCAN request: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends paged RANGE requests for all keys in [startKey, endKey). Each page is logged as it arrives,
+     * so the full result is never held in memory.
+     *
+     * @param startKey The inclusive lower bound of the range.
+     * @param endKey   The exclusive upper bound of the range.
+     */
+    public void scanRange(String startKey, String endKey) {
+        try {
+            String token = null;
+            int count = 0;
+            do {
+                ScanPage page = keyValueService.scanRange(startKey, endKey, token, SCAN_PAGE_SIZE);
+                for (Map.Entry<String, String> entry : page.getEntries().entrySet()) {
+                    logger.info("RANGE: Key=" + entry.getKey() + ", Value=" + entry.getValue());
+                }
+                count += page.getEntries().size();
+                token = page.getContinuationToken();
+            } while (token != null);
+            logger.info("RANGE: Start=" + startKey + ", End=" + endKey + ", Result=" + count + " keys found");
+        } catch (Exception e) {
+            logger.error("Error sending RANGE request: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams a CSV file of "key,value" records into the store in chunks, each committed by a single
+     * transaction. Only one chunk is held in memory at a time. Fields may be quoted as written by
+     * EXPORT; an unquoted value is everything after the first comma on the line.
+     *
+     * @param fileName The CSV file to import.
+     */
+    public void bulkImport(String fileName) {
+        long loaded = 0;
+        int chunkNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8)) {
+            Map<String, String> chunk = new LinkedHashMap<>();
+            String[] record;
+            while ((record = CsvCodec.readRecord(reader)) != null) {
+                if (record[0].isEmpty() || record[1] == null) {
+                    logger.warn("IMPORT: Skipping malformed record: " + record[0]);
+                    continue;
+                }
+                chunk.put(record[0], record[1]);
+                if (chunk.size() == BULK_CHUNK_SIZE) {
+                    loaded += sendChunk(chunk, ++chunkNumber);
+                    chunk = new LinkedHashMap<>();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                loaded += sendChunk(chunk, ++chunkNumber);
+            }
+            logger.info("IMPORT: File=" + fileName + ", Result=" + loaded + " entries loaded in " + chunkNumber + " chunks");
+        } catch (Exception e) {
+            logger.error("Error sending IMPORT request after " + loaded + " entries: " + e.getMessage());
+        }
+    }
+
+    private int sendChunk(Map<String, String> chunk, int chunkNumber) throws Exception {
+        keyValueService.requestTxn(0);
+        keyValueService.replicateOtherParticipants();
+        String packetId = System.currentTimeMillis() + "-" + chunkNumber;
+        if (!keyValueService.bulkLoad(chunk, packetId, clientId)) {
+            throw new Exception("Chunk " + chunkNumber + " was aborted");
+        }
+        return chunk.size();
+    }
+
+    /**
+     * Streams the contents of the connected participant to a CSV file of "key,value" records, one page
+     * at a time, quoting fields so that IMPORT reads them back unchanged. Records are in ascending key
+     * order when the participant keeps the ordered index.
+     *
+     * @param fileName The CSV file to write.
+     */
+    public void export(String fileName) {
+        long exported = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8)) {
+            String token = null;
+            do {
+                ScanPage page = keyValueService.exportPage(token, EXPORT_PAGE_SIZE);
+                for (Map.Entry<String, String> entry : page.getEntries().entrySet()) {
+                    writer.write(CsvCodec.encode(entry.getKey(), entry.getValue()));
+                    writer.write('\n');
+                }
+                exported += page.getEntries().size();
+                token = page.getContinuationToken();
+            } while (token != null);
+            logger.info("EXPORT: File=" + fileName + ", Result=" + exported + " entries exported");
+        } catch (Exception e) {
+            logger.error("Error sending EXPORT request after " + exported + " entries: " + e.getMessage());
+        }
+    }
+
     /**
      * Populates the key-value store with initial data.
      */
@@ -134,10 +307,29 @@ public class RMIClient {
         }
     }
 
+    /**
+     * Converts a TTL in seconds to milliseconds.
+     *
+     * @param ttlSeconds The TTL in seconds.
+     * @return The TTL in milliseconds.
+     * @throws IllegalArgumentException if the TTL is not a non-negative number or is too large.
+     */
+    private static long parseTtlMillis(String ttlSeconds) {
+        try {
+            long ttl = Long.parseLong(ttlSeconds);
+            if (ttl < 0) {
+                throw new IllegalArgumentException("TTL must not be negative: " + ttlSeconds);
+            }
+            return Math.multiplyExact(ttl, 1000L);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("TTL is not a valid number of seconds: " + ttlSeconds);
+        }
+    }
+
     /**
      * Sends a request to the server based on the input data.
      *
-     * @param requestData The request data containing the operation (PUT/GET/DELETE) and key-value pair.
+     * @param requestData The request data containing the operation (PUT/GET/DELETE/MGET/SCAN/RANGE/HOTKEYS/IMPORT/EXPORT) and key-value pair.
      */
     void sendRequest(String requestData) {
         // Parse the request and extract the operation (PUT, GET, DELETE) and data (key, value)
@@ -152,8 +344,9 @@ public class RMIClient {
 
             switch (operation.toUpperCase()) {
                 case "PUT":
+                    long ttlMillis = parts.length > 3 ? parseTtlMillis(parts[3]) : 0;
                     logger.info("Sending Request to Insert Key & value");
-                    put(key, value);
+                    put(key, value, ttlMillis);
                     break;
                 case "GET":
                     logger.info("Sending Request to Retrieve Key and its value");
@@ -163,8 +356,32 @@ public class RMIClient {
                     logger.info("Sending Request to Delete the Key");
                     delete(key);
                     break;
+                case "MGET":
+                    logger.info("Sending Request to Retrieve Keys from one snapshot");
+                    multiGet(key.split(","), value != null ? Long.parseLong(value) : 0);
+                    break;
+                case "HOTKEYS":
+                    logger.info("Sending Request to Report Hot Keys");
+                    hotKeys(Integer.parseInt(key));
+                    break;
+                case "IMPORT":
+                    logger.info("Sending Request to Bulk Load a CSV file");
+                    bulkImport(key);
+                    break;
+                case "EXPORT":
+                    logger.info("Sending Request to Export the store to a CSV file");
+                    export(key);
+                    break;
+                case "SCAN":
+                    logger.info("Sending Request to Scan Keys by prefix");
+                    scan(key);
+                    break;
+                case "RANGE":
+                    logger.info("Sending Request to Scan Keys by range");
+                    scanRange(key, value);
+                    break;
                 default:
-                    logger.error("Invalid operation. Must be one of (PUT, GET, DELETE)");
+                    logger.error("Invalid operation. Must be one of (PUT, GET, DELETE, MGET, SCAN, RANGE, HOTKEYS, IMPORT, EXPORT)");
                     break;
             }
         } catch (Exception e) {
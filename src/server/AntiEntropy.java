@@ -0,0 +1,94 @@
+package server;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconciles two replicas by comparing their Merkle trees and exchanging only the buckets that differ.
+ *
+ * <p>The walk starts at the root and descends one level per round trip into the children of nodes
+ * whose hashes differ, so replicas that agree exchange a single hash and a handful of diverged keys
+ * cost a few kilobytes. Conflicts are resolved last-writer-wins using each entry's write timestamp.
+ */
+public class AntiEntropy {
+
+  private AntiEntropy() {
+  }
+
+  /**
+   * Brings the local participant and a peer to the same state for every diverged key.
+   *
+   * @param local The participant running the repair.
+   * @param peer  The replica to compare against.
+   * @return The number of entries transferred in either direction.
+   * @throws RemoteException if a remote communication error occurs.
+   */
+  public static int reconcile(KeyValueService local, KeyValueService peer) throws RemoteException {
+    int[] candidates = {0};
+    for (int level = 0; level <= MerkleTree.DEPTH; level++) {
+      long[] localHashes = local.getMerkleHashes(level, candidates);
+      long[] peerHashes = peer.getMerkleHashes(level, candidates);
+      List<Integer> next = new ArrayList<>();
+      for (int i = 0; i < candidates.length; i++) {
+        if (localHashes[i] != peerHashes[i]) {
+          if (level == MerkleTree.DEPTH) {
+            next.add(candidates[i]);
+          } else {
+            next.add(2 * candidates[i]);
+            next.add(2 * candidates[i] + 1);
+          }
+        }
+      }
+      if (next.isEmpty()) {
+        return 0;
+      }
+      candidates = next.stream().mapToInt(Integer::intValue).toArray();
+    }
+    return repairBuckets(local, peer, candidates);
+  }
+
+  private static int repairBuckets(KeyValueService local, KeyValueService peer, int[] buckets)
+          throws RemoteException {
+    Map<String, ReplicaEntry> localEntries = byKey(local.getBucketEntries(buckets));
+    Map<String, ReplicaEntry> peerEntries = byKey(peer.getBucketEntries(buckets));
+    List<ReplicaEntry> toLocal = new ArrayList<>();
+    List<ReplicaEntry> toPeer = new ArrayList<>();
+    collectWinners(peerEntries, localEntries, toLocal);
+    collectWinners(localEntries, peerEntries, toPeer);
+    if (!toLocal.isEmpty()) {
+      local.applyEntries(toLocal);
+    }
+    if (!toPeer.isEmpty()) {
+      peer.applyEntries(toPeer);
+    }
+    return toLocal.size() + toPeer.size();
+  }
+
+  /**
+   * Collects the source entries that should replace the target's state. A tombstone is not sent to a
+   * replica that does not have the key at all.
+   */
+  private static void collectWinners(Map<String, ReplicaEntry> source, Map<String, ReplicaEntry> target,
+                                     List<ReplicaEntry> winners) {
+    for (ReplicaEntry entry : source.values()) {
+      ReplicaEntry current = target.get(entry.getKey());
+      if (entry.getValue() == null && current == null) {
+        continue;
+      }
+      if (entry.supersedes(current)) {
+        winners.add(entry);
+      }
+    }
+  }
+
+  private static Map<String, ReplicaEntry> byKey(List<ReplicaEntry> entries) {
+    Map<String, ReplicaEntry> map = new HashMap<>();
+    for (ReplicaEntry entry : entries) {
+      map.put(entry.getKey(), entry);
+    }
+    return map;
+  }
+}
@@ -0,0 +1,248 @@
+package server;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process cluster harness that wires a coordinator and participants together without RMI
+ * registries. Every call into a node goes through a FaultInjectingLink, so slow replicas, dropped
+ * prepares and crashes can be reproduced on one machine and their effect on throughput and tail
+ * latency measured. The simulated nodes run without background tasks, so only the workload's calls
+ * cross the links and the injected faults depend only on the seed. A single-client run is fully
+ * reproducible; concurrent clients still race on the participants' shared transaction flags, which can
+ * change which calls an operation makes.
+ */
+public class ClusterSimulator {
+  // Held so the level is not lost when the logger is garbage-collected
+  private static final Logger SERVER_LOGGER = Logger.getLogger("server");
+  private static final ServerLogger logger = new ServerLogger();
+
+  private final CoordinatorImpl coordinator;
+  private final List<KeyValueServiceImpl> participants = new ArrayList<>();
+  private final List<KeyValueService> participantLinks = new ArrayList<>(); // Link into each participant
+
+  /**
+   * Constructs a ClusterSimulator object and wires the simulated cluster.
+   *
+   * @param participantFaults The faults on the link into each participant; its length is the cluster size.
+   * @param coordinatorFaults The faults on the link into the coordinator.
+   * @param seed              The seed for fault decisions.
+   * @throws RemoteException if a node cannot be created.
+   */
+  public ClusterSimulator(LinkFaults[] participantFaults, LinkFaults coordinatorFaults, long seed)
+          throws RemoteException {
+    coordinator = new CoordinatorImpl();
+    Coordinator coordinatorLink = FaultInjectingLink.wrap(coordinator, Coordinator.class, "coordinator",
+            coordinatorFaults, seed);
+    for (int i = 0; i < participantFaults.length; i++) {
+      KeyValueServiceImpl participant = new KeyValueServiceImpl();
+      // Timed expiry, GC and anti-entropy rounds would add unseeded calls and timing to the run
+      participant.shutdown();
+      KeyValueService link = FaultInjectingLink.wrap(participant, KeyValueService.class, "participant-" + i,
+              participantFaults[i], seed + i + 1);
+      participants.add(participant);
+      participantLinks.add(link);
+      // Calls between nodes go through the same links, so replication sees the injected faults too
+      coordinator.addParticipant(link);
+      participant.setCoordinator(coordinatorLink);
+    }
+  }
+
+  /**
+   * Runs a mixed PUT/GET/DELETE workload from concurrent clients, each connected to a random
+   * participant as RMIClient is.
+   *
+   * @param clients      The number of concurrent clients.
+   * @param opsPerClient The number of operations issued by each client.
+   * @param keySpace     The number of distinct keys used.
+   * @param seed         The seed for the clients' choice of participant, operation and key.
+   * @return The throughput and latency report.
+   * @throws Exception if a client thread fails unexpectedly.
+   */
+  public Report runWorkload(int clients, int opsPerClient, int keySpace, long seed) throws Exception {
+    Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    for (String op : new String[]{"PUT", "GET", "DELETE"}) {
+      recorders.put(op, new LatencyRecorder());
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(clients);
+    List<Future<?>> futures = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int c = 0; c < clients; c++) {
+      String clientId = "sim-client" + c;
+      Random random = new Random(seed * 31 + c);
+      KeyValueService service = participantLinks.get(random.nextInt(participantLinks.size()));
+      futures.add(executor.submit(() -> {
+        for (int i = 0; i < opsPerClient; i++) {
+          String key = "key" + random.nextInt(keySpace);
+          int roll = random.nextInt(10);
+          String op = roll < 5 ? "PUT" : roll < 9 ? "GET" : "DELETE";
+          String requestId = clientId + "-" + i;
+          FaultInjectingLink.beginOperation(requestId, i);
+          try {
+            runOperation(service, op, key, requestId, clientId, recorders.get(op));
+          } finally {
+            FaultInjectingLink.endOperation();
+          }
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    long elapsedNanos = System.nanoTime() - start;
+    executor.shutdown();
+    return new Report(recorders, elapsedNanos);
+  }
+
+  /**
+   * Stops the simulated nodes' background tasks and unexports them so their RMI listener threads stop.
+   */
+  public void shutdown() {
+    for (KeyValueServiceImpl participant : participants) {
+      participant.shutdown();
+      unexport(participant);
+    }
+    unexport(coordinator);
+  }
+
+  private static void runOperation(KeyValueService service, String op, String key, String requestId,
+                                   String clientId, LatencyRecorder recorder) {
+    long start = System.nanoTime();
+    try {
+      boolean committed;
+      switch (op) {
+        case "PUT":
+          service.requestTxn(0);
+          service.replicateOtherParticipants();
+          committed = service.putValue(key, "value-" + requestId, requestId, clientId);
+          break;
+        case "GET":
+          // Reads are served from the committed state without a transaction, as RMIClient.get does
+          service.getValue(key, requestId, clientId);
+          committed = true;
+          break;
+        default:
+          service.requestTxn(1);
+          service.replicateOtherParticipants();
+          // A missing key draws a NACK at prepare, but the coordinator then returns without calling
+          // abort, so proceed keeps its previous value; the delete usually still runs and returns false
+          // because the key is absent. Deletes of missing keys are therefore counted as aborted.
+          committed = service.deleteValue(key, requestId, clientId);
+          break;
+      }
+      if (committed) {
+        recorder.record(System.nanoTime() - start);
+      } else {
+        recorder.recordAbort();
+      }
+    } catch (Exception e) {
+      recorder.recordError();
+    }
+  }
+
+  private static void unexport(Remote object) {
+    try {
+      UnicastRemoteObject.unexportObject(object, true);
+    } catch (RemoteException e) {
+      logger.error("Failed to unexport simulated node: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Runs the built-in scenarios and logs a report for each.
+   *
+   * @param args Optional: operations per client (default 250), clients (default 4), seed (default 42).
+   */
+  public static void main(String[] args) throws Exception {
+    int opsPerClient = args.length > 0 ? Integer.parseInt(args[0]) : 250;
+    int clients = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+    SERVER_LOGGER.setLevel(Level.WARNING); // Silence per-request logging of the participants
+
+    Map<String, LinkFaults[]> scenarios = new LinkedHashMap<>();
+    LinkFaults h = LinkFaults.NONE;
+    scenarios.put("healthy", new LinkFaults[]{h, h, h, h, h});
+    scenarios.put("slow replica (participant-2: 5ms + 0-20ms jitter)",
+            new LinkFaults[]{h, h, new LinkFaults(5, 20, 0, -1), h, h});
+    scenarios.put("lossy prepares (participant-3: 2% of prepare dropped)",
+            new LinkFaults[]{h, h, h, new LinkFaults(0, 0, 0.02, -1, "prepare"), h});
+    scenarios.put("crashed replica (participant-4 from each client's operation " + opsPerClient / 2 + ")",
+            new LinkFaults[]{h, h, h, h, new LinkFaults(0, 0, 0, opsPerClient / 2)});
+
+    for (Map.Entry<String, LinkFaults[]> scenario : scenarios.entrySet()) {
+      ClusterSimulator simulator = new ClusterSimulator(scenario.getValue(), LinkFaults.NONE, seed);
+      try {
+        Report report = simulator.runWorkload(clients, opsPerClient, 1000, seed);
+        logger.info("Scenario: " + scenario.getKey());
+        for (String line : report.lines()) {
+          logger.info("  " + line);
+        }
+      } finally {
+        simulator.shutdown();
+      }
+    }
+    System.exit(0);
+  }
+
+  /**
+   * Throughput and latency percentiles of one simulated workload.
+   */
+  public static class Report {
+    private final Map<String, LatencyRecorder> recorders;
+    private final long elapsedNanos;
+
+    private Report(Map<String, LatencyRecorder> recorders, long elapsedNanos) {
+      this.recorders = recorders;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Retrieves the latency recorder of an operation type.
+     *
+     * @param op The operation: PUT, GET or DELETE.
+     * @return The recorder for that operation.
+     */
+    public LatencyRecorder getRecorder(String op) {
+      return recorders.get(op);
+    }
+
+    /**
+     * Computes the rate of committed operations.
+     *
+     * @return The throughput in operations per second.
+     */
+    public double throughput() {
+      long ok = 0;
+      for (LatencyRecorder recorder : recorders.values()) {
+        ok += recorder.getCount();
+      }
+      return ok / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Formats the report as log lines.
+     *
+     * @return One line for the throughput and one per operation type.
+     */
+    public List<String> lines() {
+      List<String> lines = new ArrayList<>();
+      lines.add(String.format("throughput=%.1f ops/s elapsed=%.2fs", throughput(), elapsedNanos / 1_000_000_000.0));
+      for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+        lines.add(entry.getKey() + ": " + entry.getValue().summary());
+      }
+      return lines;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Always-on profiler for hot keys and lock contention. It tracks the most requested keys, the keys
+ * whose requests wait longest for a lock, and the total wait time of each named lock. Memory is
+ * bounded by the top-K capacity; counts decay so reports reflect recent traffic.
+ */
+public class ContentionProfiler {
+  private final StripedSpaceSaving requestCounts; // Striped so recording a request takes no shared lock
+  private final StripedSpaceSaving lockWaitNanos;
+  private final Map<String, LockCounters> locks = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a ContentionProfiler object.
+   *
+   * @param capacity The maximum number of keys tracked by each stripe of a top-K list.
+   */
+  public ContentionProfiler(int capacity) {
+    this.requestCounts = new StripedSpaceSaving(capacity);
+    this.lockWaitNanos = new StripedSpaceSaving(capacity);
+  }
+
+  /**
+   * Records one client request for a key.
+   *
+   * @param key The requested key.
+   */
+  public void recordRequest(String key) {
+    requestCounts.add(key, 1);
+  }
+
+  /**
+   * Records the time a request for a key waited to acquire a lock.
+   *
+   * @param lockName  The name of the lock that was acquired.
+   * @param key       The key the request was for.
+   * @param waitNanos The time spent waiting, in nanoseconds.
+   */
+  public void recordLockWait(String lockName, String key, long waitNanos) {
+    LockCounters counters = locks.computeIfAbsent(lockName, name -> new LockCounters());
+    counters.acquisitions.increment();
+    counters.totalWaitNanos.add(waitNanos);
+    counters.maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    if (waitNanos > 0) {
+      lockWaitNanos.add(key, waitNanos);
+    }
+  }
+
+  /**
+   * Halves the per-key statistics so that older traffic fades out of the report.
+   */
+  public void decay() {
+    requestCounts.decay();
+    lockWaitNanos.decay();
+  }
+
+  /**
+   * Builds a report of the current statistics.
+   *
+   * @param k The number of keys to include in each list.
+   * @return The hot-key report.
+   */
+  public HotKeyReport report(int k) {
+    List<HotKeyReport.LockStat> lockStats = new ArrayList<>();
+    for (Map.Entry<String, LockCounters> entry : locks.entrySet()) {
+      LockCounters counters = entry.getValue();
+      lockStats.add(new HotKeyReport.LockStat(entry.getKey(), counters.acquisitions.sum(),
+              counters.totalWaitNanos.sum(), counters.maxWaitNanos.get()));
+    }
+    return new HotKeyReport(requestCounts.top(k), lockWaitNanos.top(k), lockStats);
+  }
+
+  /**
+   * Cumulative wait counters of one lock.
+   */
+  private static class LockCounters {
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+  }
+}
@@ -0,0 +1,27 @@
+package server;
+
+/**
+ * Policies for choosing which entries to evict when a participant exceeds its memory cap.
+ */
+public enum EvictionPolicy {
+  /** Evict the least recently used key. */
+  LRU,
+
+  /** Evict the least frequently used key, breaking ties by least recent use. */
+  LFU;
+
+  /**
+   * Creates a tracker that records key usage for this policy.
+   *
+   * @return A new EvictionTracker.
+   */
+  public EvictionTracker newTracker() {
+    switch (this) {
+      case LFU:
+        return new LfuEvictionTracker();
+      case LRU:
+      default:
+        return new LruEvictionTracker();
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package server;
+
+/**
+ * Tracks key usage so that a participant can pick an eviction victim in bounded time.
+ */
+public interface EvictionTracker {
+
+  /**
+   * Records that the key was inserted or updated.
+   *
+   * @param key The key that was written.
+   */
+  void recordWrite(String key);
+
+  /**
+   * Records that the key was read.
+   *
+   * @param key The key that was read.
+   */
+  void recordRead(String key);
+
+  /**
+   * Stops tracking the key after it has been removed from the store.
+   *
+   * @param key The key that was removed.
+   */
+  void remove(String key);
+
+  /**
+   * Selects the key that should be evicted next, without removing it.
+   *
+   * @param excludedKey A key that must not be chosen, such as the key that was just written.
+   * @return The victim key, or null if no other keys are tracked.
+   */
+  String victim(String excludedKey);
+}
@@ -0,0 +1,149 @@
+package server;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dynamic proxy standing in for the RMI link into one simulated node. Every remote call passes
+ * through the node's LinkFaults: it is delayed, may be dropped with a RemoteException, and fails
+ * once the node has crashed.
+ *
+ * <p>Fault decisions are a hash of the seed, the node, the simulated operation the call belongs to,
+ * the method and how many times that method has already been called on this node within the
+ * operation. They do not depend on thread scheduling or on calls made by other operations, so a run
+ * with the same seed injects the same faults. Calls made outside a simulated operation pass through
+ * without faults.
+ */
+public class FaultInjectingLink implements InvocationHandler {
+  // Operation being run by the current thread; nested calls between nodes run on the same thread
+  private static final ThreadLocal<Operation> CURRENT_OPERATION = new ThreadLocal<>();
+
+  private final Object target;
+  private final String nodeName;
+  private final LinkFaults faults;
+  private final long seed;
+
+  private FaultInjectingLink(Object target, String nodeName, LinkFaults faults, long seed) {
+    this.target = target;
+    this.nodeName = nodeName;
+    this.faults = faults;
+    this.seed = seed;
+  }
+
+  /**
+   * Marks the start of a simulated client operation on the current thread. Faults injected into the
+   * calls made until endOperation are derived from the operation id.
+   *
+   * @param operationId    The unique id of the operation, such as its request id.
+   * @param operationIndex The position of the operation in its client's sequence, used for crashes.
+   */
+  public static void beginOperation(String operationId, long operationIndex) {
+    CURRENT_OPERATION.set(new Operation(operationId, operationIndex));
+  }
+
+  /**
+   * Marks the end of the current thread's simulated operation.
+   */
+  public static void endOperation() {
+    CURRENT_OPERATION.remove();
+  }
+
+  /**
+   * Wraps a node so that every call into it goes through the simulated link.
+   *
+   * @param target    The node implementation.
+   * @param type      The remote interface exposed by the node.
+   * @param nodeName  The node name used in injected exceptions.
+   * @param faults    The faults to inject.
+   * @param seed      The seed for fault decisions.
+   * @param <T>       The remote interface type.
+   * @return A proxy implementing the remote interface.
+   */
+  public static <T extends Remote> T wrap(T target, Class<T> type, String nodeName, LinkFaults faults, long seed) {
+    FaultInjectingLink link = new FaultInjectingLink(target, nodeName, faults, seed);
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, link));
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    switch (method.getName()) {
+      case "equals":
+        // Lets a node recognize the link to itself, as RMI stubs compare equal to their object
+        return unwrap(args[0]) == target;
+      case "hashCode":
+        return System.identityHashCode(target);
+      case "toString":
+        return "link to " + nodeName;
+      default:
+        break;
+    }
+    Operation operation = CURRENT_OPERATION.get();
+    long delay = 0;
+    boolean drop = false;
+    if (operation != null) {
+      if (faults.getCrashAtOperation() >= 0 && operation.index >= faults.getCrashAtOperation()) {
+        throw new RemoteException("Simulated crash of " + nodeName);
+      }
+      long hash = mix(mix(mix(seed ^ nodeName.hashCode()) ^ operation.id.hashCode())
+              ^ ((long) method.getName().hashCode() << 32 | operation.nextOccurrence(nodeName, method.getName())));
+      delay = faults.getDelayMillis() + (long) (unitInterval(hash) * (faults.getJitterMillis() + 1));
+      drop = faults.dropsMethod(method.getName()) && unitInterval(mix(hash)) < faults.getDropRate();
+    }
+    if (delay > 0) {
+      Thread.sleep(delay);
+    }
+    if (drop) {
+      throw new RemoteException("Simulated drop of " + method.getName() + " to " + nodeName);
+    }
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * SplitMix64 finalizer, spreading the bits of a combined hash.
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  private static double unitInterval(long hash) {
+    return (hash >>> 11) * 0x1.0p-53;
+  }
+
+  private static Object unwrap(Object object) {
+    if (object != null && Proxy.isProxyClass(object.getClass())
+            && Proxy.getInvocationHandler(object) instanceof FaultInjectingLink) {
+      return ((FaultInjectingLink) Proxy.getInvocationHandler(object)).target;
+    }
+    return object;
+  }
+
+  /**
+   * A simulated client operation and the calls it has made so far.
+   */
+  private static class Operation {
+    private final String id;
+    private final long index;
+    private final Map<String, Integer> occurrences = new HashMap<>(); // Calls per node and method
+
+    private Operation(String id, long index) {
+      this.id = id;
+      this.index = index;
+    }
+
+    private int nextOccurrence(String nodeName, String methodName) {
+      return occurrences.merge(nodeName + "." + methodName, 1, Integer::sum);
+    }
+  }
+}
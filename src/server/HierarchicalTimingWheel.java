@@ -0,0 +1,163 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel used to expire keys without scanning the whole store.
+ *
+ * <p>Level 0 has one slot per tick; each higher level has slots that span a full revolution of the
+ * level below. Timers far in the future sit in a coarse slot and are cascaded down as time advances,
+ * so scheduling and expiring a key are both constant time per tick. Each key has at most one pending
+ * timer: rescheduling a key replaces its timer. The wheel is not thread-safe; callers must
+ * synchronize access.
+ */
+public class HierarchicalTimingWheel {
+  private static final int SLOT_BITS = 6; // 64 slots per level
+  private static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+  private static final int LEVELS = 4; // 64^4 ticks of range before timers are parked at the top level
+
+  private final long tickMillis; // Duration of one level 0 slot
+  private final List<Set<Timer>> slots; // LEVELS * SLOTS_PER_LEVEL buckets of pending timers
+  private final Map<String, Timer> timers; // Pending timer of each scheduled key
+  private long currentTick; // Last tick that has been processed
+
+  /**
+   * Constructs a HierarchicalTimingWheel object.
+   *
+   * @param tickMillis The resolution of the wheel in milliseconds.
+   * @param startMillis The current time in milliseconds.
+   */
+  public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+    this.tickMillis = tickMillis;
+    this.currentTick = startMillis / tickMillis;
+    this.slots = new ArrayList<>(LEVELS * SLOTS_PER_LEVEL);
+    for (int i = 0; i < LEVELS * SLOTS_PER_LEVEL; i++) {
+      slots.add(new LinkedHashSet<>());
+    }
+    this.timers = new HashMap<>();
+  }
+
+  /**
+   * Schedules a key to expire at the given deadline, replacing any timer already pending for it.
+   *
+   * @param key The key to expire.
+   * @param deadlineMillis The absolute time in milliseconds at which the key expires.
+   */
+  public void schedule(String key, long deadlineMillis) {
+    cancel(key);
+    Timer timer = new Timer(key, deadlineMillis);
+    timers.put(key, timer);
+    insert(timer, null);
+  }
+
+  /**
+   * Cancels the pending timer of a key, if any.
+   *
+   * @param key The key whose timer to cancel.
+   */
+  public void cancel(String key) {
+    Timer timer = timers.remove(key);
+    if (timer != null) {
+      slots.get(timer.slot).remove(timer);
+    }
+  }
+
+  /**
+   * Advances the wheel to the given time and collects the keys whose timers have fired.
+   *
+   * @param nowMillis The current time in milliseconds.
+   * @return The keys whose deadline is at or before nowMillis.
+   */
+  public List<String> advance(long nowMillis) {
+    List<String> expired = new ArrayList<>();
+    long targetTick = nowMillis / tickMillis;
+    while (currentTick < targetTick) {
+      currentTick++;
+      cascade(1, expired);
+      Set<Timer> due = slots.get((int) (currentTick & SLOT_MASK));
+      for (Timer timer : due) {
+        fire(timer, expired);
+      }
+      due.clear();
+    }
+    return expired;
+  }
+
+  /**
+   * Retrieves the number of pending timers, which is the number of scheduled keys.
+   *
+   * @return The number of pending timers.
+   */
+  public int size() {
+    return timers.size();
+  }
+
+  /**
+   * Moves the timers of the current slot at the given level down to finer levels, once every lower
+   * level has completed a full revolution.
+   */
+  private void cascade(int level, List<String> expired) {
+    if (level >= LEVELS || (currentTick & ((1L << (level * SLOT_BITS)) - 1)) != 0) {
+      return;
+    }
+    // Cascade the coarser level first so its timers can land in this level's slot before it is drained
+    cascade(level + 1, expired);
+    Set<Timer> bucket = slots.get(level * SLOTS_PER_LEVEL + (int) ((currentTick >>> (level * SLOT_BITS)) & SLOT_MASK));
+    List<Timer> cascaded = new ArrayList<>(bucket);
+    bucket.clear();
+    for (Timer timer : cascaded) {
+      insert(timer, expired);
+    }
+  }
+
+  private void fire(Timer timer, List<String> expired) {
+    timers.remove(timer.key);
+    expired.add(timer.key);
+  }
+
+  private void insert(Timer timer, List<String> expired) {
+    // Round up so a timer never fires before its deadline
+    long tick = (timer.deadlineMillis + tickMillis - 1) / tickMillis;
+    long delta = tick - currentTick;
+    if (delta <= 0) {
+      if (expired != null) {
+        fire(timer, expired);
+        return;
+      }
+      // Already due: fire on the next tick
+      tick = currentTick + 1;
+      delta = 1;
+    }
+    int level = 0;
+    while (level < LEVELS - 1 && delta >= (1L << ((level + 1) * SLOT_BITS))) {
+      level++;
+    }
+    long maxDelta = (1L << (LEVELS * SLOT_BITS)) - 1;
+    if (delta > maxDelta) {
+      // Beyond the wheel's range: park the timer where it will be cascaded and re-examined
+      tick = currentTick + maxDelta;
+    }
+    timer.slot = level * SLOTS_PER_LEVEL + (int) ((tick >>> (level * SLOT_BITS)) & SLOT_MASK);
+    slots.get(timer.slot).add(timer);
+  }
+
+  /**
+   * A pending expiry for a single key.
+   */
+  private static class Timer {
+    private final String key;
+    private final long deadlineMillis;
+    private int slot; // Bucket currently holding this timer
+
+    private Timer(String key, long deadlineMillis) {
+      this.key = key;
+      this.deadlineMillis = deadlineMillis;
+    }
+  }
+}
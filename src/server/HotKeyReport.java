@@ -0,0 +1,151 @@
+package server;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of a participant's hot-key and lock contention statistics, returned by the admin query.
+ */
+public class HotKeyReport implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final List<KeyStat> hottestKeys; // Most frequently requested keys
+  private final List<KeyStat> mostContendedKeys; // Keys whose writers waited longest for a lock, in nanoseconds
+  private final List<LockStat> locks; // Wait statistics per lock
+
+  /**
+   * Constructs a HotKeyReport object.
+   *
+   * @param hottestKeys       The most frequently requested keys, hottest first.
+   * @param mostContendedKeys The keys with the most lock wait time, most contended first.
+   * @param locks             The wait statistics of each lock.
+   */
+  public HotKeyReport(List<KeyStat> hottestKeys, List<KeyStat> mostContendedKeys, List<LockStat> locks) {
+    this.hottestKeys = hottestKeys;
+    this.mostContendedKeys = mostContendedKeys;
+    this.locks = locks;
+  }
+
+  /**
+   * Retrieves the most frequently requested keys.
+   *
+   * @return The hottest keys with their estimated request counts, hottest first.
+   */
+  public List<KeyStat> getHottestKeys() {
+    return Collections.unmodifiableList(hottestKeys);
+  }
+
+  /**
+   * Retrieves the keys whose requests spent the most time waiting for a lock.
+   *
+   * @return The most contended keys with their estimated wait time in nanoseconds.
+   */
+  public List<KeyStat> getMostContendedKeys() {
+    return Collections.unmodifiableList(mostContendedKeys);
+  }
+
+  /**
+   * Retrieves the wait statistics of each lock.
+   *
+   * @return The lock statistics.
+   */
+  public List<LockStat> getLocks() {
+    return Collections.unmodifiableList(locks);
+  }
+
+  @Override
+  public String toString() {
+    return "hottestKeys=" + hottestKeys + ", mostContendedKeys=" + mostContendedKeys + ", locks=" + locks;
+  }
+
+  /**
+   * Estimated weight of one key. The true weight lies between count - error and count.
+   */
+  public static class KeyStat implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String key;
+    private final long count;
+    private final long error;
+
+    /**
+     * Constructs a KeyStat object.
+     *
+     * @param key   The key.
+     * @param count The estimated weight, which never underestimates the true weight.
+     * @param error The maximum overestimate of the weight.
+     */
+    public KeyStat(String key, long count, long error) {
+      this.key = key;
+      this.count = count;
+      this.error = error;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getError() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + count + (error > 0 ? "(+/-" + error + ")" : "");
+    }
+  }
+
+  /**
+   * Wait statistics of one lock.
+   */
+  public static class LockStat implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final long acquisitions;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+
+    /**
+     * Constructs a LockStat object.
+     *
+     * @param name           The lock name.
+     * @param acquisitions   The number of times the lock was acquired.
+     * @param totalWaitNanos The total time spent waiting to acquire the lock.
+     * @param maxWaitNanos   The longest single wait.
+     */
+    public LockStat(String name, long acquisitions, long totalWaitNanos, long maxWaitNanos) {
+      this.name = name;
+      this.acquisitions = acquisitions;
+      this.totalWaitNanos = totalWaitNanos;
+      this.maxWaitNanos = maxWaitNanos;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getAcquisitions() {
+      return acquisitions;
+    }
+
+    public long getTotalWaitNanos() {
+      return totalWaitNanos;
+    }
+
+    public long getMaxWaitNanos() {
+      return maxWaitNanos;
+    }
+
+    @Override
+    public String toString() {
+      return name + "{acquisitions=" + acquisitions + ", totalWaitMicros=" + totalWaitNanos / 1000 +
+              ", maxWaitMicros=" + maxWaitNanos / 1000 + "}";
+    }
+  }
+}
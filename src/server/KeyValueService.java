@@ -2,6 +2,8 @@ package server;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The KeyValueService interface defines the remote methods for interacting with the key-value store server.
@@ -20,6 +22,26 @@ public interface KeyValueService extends Remote {
      */
     String getValue(String key, String requestId, String clientID) throws RemoteException, Exception;
 
+    /**
+     * Reads several keys from one consistent snapshot without blocking on writers.
+     *
+     * @param keys      The keys to read.
+     * @param version   The commit version to read at, or 0 to read the latest committed version.
+     * @param requestId The unique identifier for the request.
+     * @param clientID  The ID of the client making the request.
+     * @return The snapshot version and the values of the keys that existed at it.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    SnapshotRead readSnapshot(List<String> keys, long version, String requestId, String clientID) throws RemoteException;
+
+    /**
+     * Retrieves the latest commit version of this participant, for use with readSnapshot.
+     *
+     * @return The latest commit version.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    long getCommittedVersion() throws RemoteException;
+
     /**
      * Inserts or updates the value associated with the specified key.
      *
@@ -33,6 +55,33 @@ public interface KeyValueService extends Remote {
      */
     Boolean putValue(String key, String value, String requestId, String clientID) throws RemoteException, Exception;
 
+    /**
+     * Inserts or updates the value associated with the specified key, expiring it after the given TTL.
+     *
+     * @param key       The key to be inserted or updated.
+     * @param value     The value to be associated with the key.
+     * @param ttlMillis The time to live in milliseconds, or 0 if the key never expires.
+     * @param requestId The unique identifier for the request.
+     * @param clientID  The ID of the client making the request.
+     * @return true if the operation is successful, false otherwise.
+     * @throws RemoteException if a remote communication error occurs.
+     * @throws Exception       if an error occurs during the insertion or update process.
+     */
+    Boolean putValue(String key, String value, long ttlMillis, String requestId, String clientID) throws RemoteException, Exception;
+
+    /**
+     * Inserts or updates a chunk of key-value pairs with a single transaction, replicating the whole
+     * chunk to each other participant in one call.
+     *
+     * @param entries   The key-value pairs to load (capped by the server).
+     * @param requestId The unique identifier for the request.
+     * @param clientID  The ID of the client making the request.
+     * @return true if the chunk was committed, false otherwise.
+     * @throws RemoteException if a remote communication error occurs.
+     * @throws Exception       if an error occurs while loading the chunk.
+     */
+    Boolean bulkLoad(Map<String, String> entries, String requestId, String clientID) throws RemoteException, Exception;
+
     /**
      * Deletes the value associated with the specified key.
      *
@@ -94,6 +143,19 @@ public interface KeyValueService extends Remote {
      */
     String go(String key, String value) throws RemoteException;
 
+    /**
+     * Updates the key-value store with a replicated write. Writes older than the key's current
+     * version are ignored.
+     *
+     * @param key       The key to update.
+     * @param value     The value to update.
+     * @param expiresAt The absolute expiry time in milliseconds, or 0 if the key never expires.
+     * @param timestamp The write timestamp assigned by the participant that accepted the write.
+     * @return "ACK" upon successful update.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    String go(String key, String value, long expiresAt, long timestamp) throws RemoteException;
+
     /**
      * Removes the key-value pair from the key-value store.
      *
@@ -103,5 +165,88 @@ public interface KeyValueService extends Remote {
      */
     String remove(String key) throws RemoteException;
 
+    /**
+     * Removes the key-value pair with a replicated delete. Deletes older than the key's current
+     * version are ignored.
+     *
+     * @param key       The key to remove.
+     * @param timestamp The write timestamp assigned by the participant that accepted the delete.
+     * @return "ACK" upon successful removal.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    String remove(String key, long timestamp) throws RemoteException;
+
     void replicateOtherParticipants() throws RemoteException;
+
+    /**
+     * Scans the keys in the range [startKey, endKey) in ascending order, one bounded page at a time.
+     *
+     * @param startKey          The inclusive lower bound, or null to start from the first key.
+     * @param endKey            The exclusive upper bound, or null to scan to the last key.
+     * @param continuationToken The token returned by the previous page, or null for the first page.
+     * @param pageSize          The maximum number of entries to return (capped by the server).
+     * @return The page of entries and the token for the next page.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    ScanPage scanRange(String startKey, String endKey, String continuationToken, int pageSize) throws RemoteException;
+
+    /**
+     * Scans the keys starting with the given prefix in ascending order, one bounded page at a time.
+     *
+     * @param prefix            The key prefix to match.
+     * @param continuationToken The token returned by the previous page, or null for the first page.
+     * @param pageSize          The maximum number of entries to return (capped by the server).
+     * @return The page of entries and the token for the next page.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    ScanPage scanPrefix(String prefix, String continuationToken, int pageSize) throws RemoteException;
+
+    /**
+     * Reads every live entry of this participant one bounded page at a time, for export. Pages are in
+     * ascending key order when the ordered index is enabled; otherwise the order is unspecified and the
+     * token names a cursor held by this participant, which is dropped after a period of inactivity.
+     *
+     * @param continuationToken The token returned by the previous page, or null for the first page.
+     * @param pageSize          The maximum number of entries to return (capped by the server).
+     * @return The page of entries and the token for the next page.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    ScanPage exportPage(String continuationToken, int pageSize) throws RemoteException;
+
+    /**
+     * Retrieves the hashes of selected nodes of this participant's Merkle tree.
+     *
+     * @param level   The tree level, from 0 (the root) to MerkleTree.DEPTH (the leaf buckets).
+     * @param indices The node indices within the level.
+     * @return The node hashes in the order of indices.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    long[] getMerkleHashes(int level, int[] indices) throws RemoteException;
+
+    /**
+     * Retrieves the latest state, including tombstones, of every key in the given leaf buckets.
+     *
+     * @param buckets The leaf bucket indices.
+     * @return The entries of those buckets.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    List<ReplicaEntry> getBucketEntries(int[] buckets) throws RemoteException;
+
+    /**
+     * Applies entries received from another participant during anti-entropy repair or a bulk load,
+     * keeping whichever write is newer.
+     *
+     * @param entries The entries to apply.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    void applyEntries(List<ReplicaEntry> entries) throws RemoteException;
+
+    /**
+     * Admin query returning this participant's hottest keys and lock contention statistics.
+     *
+     * @param k The number of keys to include in each top-K list.
+     * @return The hot-key report.
+     * @throws RemoteException if a remote communication error occurs.
+     */
+    HotKeyReport getHotKeyReport(int k) throws RemoteException;
 }
@@ -2,9 +2,23 @@ package server;
 
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -12,10 +26,44 @@ import java.util.logging.Logger;
 
 /**
  * Implementation of the KeyValueService interface using ConcurrentHashMap and Locks for synchronization.
+ *
+ * <p>Each key maps to a chain of committed versions. Writers are serialized and publish a new commit
+ * version after installing their value, so readers can walk the chains of a snapshot without locks.
  */
 public class KeyValueServiceImpl extends UnicastRemoteObject implements KeyValueService {
     private static final Logger LOGGER = Logger.getLogger(KeyValueServiceImpl.class.getName());
-    private ConcurrentHashMap<String, String> keyValueStore;
+    private static final int MAX_SCAN_PAGE_SIZE = 1000; // Upper bound on entries returned by one scan call
+    private static final int MAX_BULK_CHUNK_SIZE = 10_000; // Upper bound on entries accepted by one bulk load call
+    private static final long EXPIRY_TICK_MILLIS = 100; // Resolution of TTL expiry
+    private static final int ENTRY_OVERHEAD_BYTES = 96; // Estimated map, index and object headers per entry
+    private static final int RETAINED_VERSIONS = 64; // Recent commits that stay readable by version
+    private static final long ANTI_ENTROPY_INTERVAL_MILLIS = 10_000; // Pause between repair rounds with a random peer
+    private static final long TOMBSTONE_GRACE_MILLIS = 5 * 60_000; // How long deletes are kept so repair cannot resurrect them
+    private static final int HOT_KEY_CAPACITY = 256; // Keys tracked by each top-K list of the profiler
+    private static final long PROFILE_DECAY_MILLIS = 60_000; // Interval at which profiler counts are halved
+    private static final long EXPORT_CURSOR_IDLE_MILLIS = 5 * 60_000; // How long an unused export cursor is kept
+    private static final String WRITER_LOCK = "writer-lock"; // Profiler name of the lock serializing client writes
+    private static final String STORE_MONITOR = "store-monitor"; // Profiler name of the monitor guarding replica applies
+    private ConcurrentHashMap<String, VersionedValue> keyValueStore;
+    private volatile long committedVersion; // Latest commit version visible to readers
+    private long batchVersion; // Version shared by the writes of the open batch, 0 outside a batch
+    private boolean batchWritten; // Whether the open batch has installed any write
+    private SnapshotRegistry snapshotRegistry;
+    private ConcurrentLinkedQueue<String> versionGcQueue; // Keys whose chains may hold collectable versions
+    private ConcurrentLinkedQueue<String> tombstoneQueue; // Deleted keys waiting out the tombstone grace period
+    private AtomicLong lastTimestamp; // Last write timestamp issued or observed by this participant
+    private MerkleTree merkleTree;
+    private ConcurrentSkipListSet<String> orderedIndex; // Sorted keys for range scans, null when disabled
+    private ConcurrentHashMap<String, ExportCursor> exportCursors; // Open exports by token when the index is disabled
+    private HierarchicalTimingWheel expiryWheel;
+    private ScheduledExecutorService expiryExecutor;
+    private ScheduledExecutorService antiEntropyExecutor;
+    private Random random;
+    private ContentionProfiler profiler;
+    private EvictionTracker evictionTracker; // Usage tracking for eviction, null when memory is unbounded
+    private long maxMemoryBytes; // Memory cap for stored entries, 0 for unbounded
+    private AtomicLong usedMemoryBytes; // Estimated size of live entries, compared to the memory cap
+    private AtomicLong tombstoneBytes; // Estimated size of tombstones, which only garbage collection can free
     private Lock lock;
 
     private boolean isReplicationNeeded = false;
@@ -32,52 +80,204 @@ public class KeyValueServiceImpl extends UnicastRemoteObject implements KeyValue
      * @throws RemoteException if an RMI-related exception occurs.
      */
     public KeyValueServiceImpl() throws RemoteException {
+        this(true);
+    }
+
+    /**
+     * Constructs a KeyValueServiceImpl object with the ordered index optionally enabled.
+     *
+     * @param orderedIndexEnabled true to keep a sorted key index so range and prefix scans are supported.
+     * @throws RemoteException if an RMI-related exception occurs.
+     */
+    public KeyValueServiceImpl(boolean orderedIndexEnabled) throws RemoteException {
+        this(orderedIndexEnabled, 0, EvictionPolicy.LRU);
+    }
+
+    /**
+     * Constructs a KeyValueServiceImpl object with an optional ordered index and memory cap.
+     *
+     * @param orderedIndexEnabled true to keep a sorted key index so range and prefix scans are supported.
+     * @param maxMemoryBytes      The estimated memory allowed for stored entries, or 0 for unbounded.
+     * @param evictionPolicy      The policy used to pick entries to evict once the cap is exceeded.
+     * @throws RemoteException if an RMI-related exception occurs.
+     */
+    public KeyValueServiceImpl(boolean orderedIndexEnabled, long maxMemoryBytes, EvictionPolicy evictionPolicy)
+            throws RemoteException {
         keyValueStore = new ConcurrentHashMap<>();
+        snapshotRegistry = new SnapshotRegistry(RETAINED_VERSIONS);
+        versionGcQueue = new ConcurrentLinkedQueue<>();
+        tombstoneQueue = new ConcurrentLinkedQueue<>();
+        lastTimestamp = new AtomicLong();
+        merkleTree = new MerkleTree();
+        random = new Random();
+        profiler = new ContentionProfiler(HOT_KEY_CAPACITY);
         lock = new ReentrantLock();
+        if (orderedIndexEnabled) {
+            orderedIndex = new ConcurrentSkipListSet<>();
+        }
+        exportCursors = new ConcurrentHashMap<>();
+        this.maxMemoryBytes = maxMemoryBytes;
+        if (maxMemoryBytes > 0) {
+            evictionTracker = evictionPolicy.newTracker();
+        }
+        usedMemoryBytes = new AtomicLong();
+        tombstoneBytes = new AtomicLong();
+        expiryWheel = new HierarchicalTimingWheel(EXPIRY_TICK_MILLIS, System.currentTimeMillis());
+        expiryExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kv-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiryExecutor.scheduleAtFixedRate(this::expireDueKeys, EXPIRY_TICK_MILLIS, EXPIRY_TICK_MILLIS,
+                TimeUnit.MILLISECONDS);
+        expiryExecutor.scheduleWithFixedDelay(this::collectOldVersions, EXPIRY_TICK_MILLIS, EXPIRY_TICK_MILLIS,
+                TimeUnit.MILLISECONDS);
+        expiryExecutor.scheduleAtFixedRate(profiler::decay, PROFILE_DECAY_MILLIS, PROFILE_DECAY_MILLIS,
+                TimeUnit.MILLISECONDS);
+        expiryExecutor.scheduleWithFixedDelay(this::dropIdleExportCursors, EXPORT_CURSOR_IDLE_MILLIS,
+                EXPORT_CURSOR_IDLE_MILLIS, TimeUnit.MILLISECONDS);
+        antiEntropyExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kv-anti-entropy");
+            thread.setDaemon(true);
+            return thread;
+        });
+        antiEntropyExecutor.scheduleWithFixedDelay(this::runAntiEntropy, ANTI_ENTROPY_INTERVAL_MILLIS,
+                ANTI_ENTROPY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
     }
 
 
     @Override
     public String getValue(String key, String requestId, String clientID) throws Exception {
-        coordinator.prepareTransaction(key);
-        if (proceed) {
-            lock.lock(); // Acquire the lock
-            try {
-                LOGGER.log(Level.INFO, "Request to get value for key: " + key +
-                        " (Request ID: " + requestId + ")" + "(Client ID: " + clientID + ")");
-                String value = keyValueStore.get(key);
-                if(value == null){
-                    return "null";
+        profiler.recordRequest(key);
+        // Reads the latest committed version without a prepare round or the writer lock, as readSnapshot does
+        LOGGER.log(Level.INFO, "Request to get value for key: " + key +
+                " (Request ID: " + requestId + ")" + "(Client ID: " + clientID + ")");
+        String value = liveValue(key);
+        if(value == null){
+            return "null";
+        }
+        if (evictionTracker != null) {
+            evictionTracker.recordRead(key);
+        }
+        LOGGER.log(Level.INFO, "Value retrieved successfully: Key - " + key +
+                ", Value - " + value + " (Request ID: " + requestId + ")" + "(Client ID: " + clientID + ")");
+        return value;
+    }
+
+    @Override
+    public SnapshotRead readSnapshot(List<String> keys, long version, String requestId, String clientID)
+            throws RemoteException {
+        long snapshotVersion = version > 0 ? version : committedVersion;
+        if (snapshotVersion > committedVersion) {
+            throw new IllegalArgumentException("Version " + snapshotVersion + " has not been committed yet");
+        }
+        LOGGER.log(Level.INFO, "Request to read " + keys.size() + " keys at version " + snapshotVersion +
+                " (Request ID: " + requestId + ")" + "(Client ID: " + clientID + ")");
+        snapshotRegistry.open(snapshotVersion);
+        try {
+            long now = System.currentTimeMillis();
+            Map<String, String> values = new LinkedHashMap<>();
+            for (String key : keys) {
+                profiler.recordRequest(key);
+                VersionedValue head = keyValueStore.get(key);
+                VersionedValue visible = head == null ? null : head.visibleAt(snapshotVersion);
+                if (visible != null && !visible.isTombstone() && !visible.isExpired(now)) {
+                    values.put(key, visible.getValue());
                 }
-                LOGGER.log(Level.INFO, "Value retrieved successfully: Key - " + key +
-                        ", Value - " + value + " (Request ID: " + requestId + ")" + "(Client ID: " + clientID + ")");
-                return value;
-            } finally {
-                lock.unlock(); // Release the lock in a final block
             }
+            return new SnapshotRead(snapshotVersion, values);
+        } finally {
+            snapshotRegistry.close(snapshotVersion);
         }
-        return "abort";
+    }
 
+    @Override
+    public long getCommittedVersion() throws RemoteException {
+        return committedVersion;
     }
 
     @Override
     public Boolean putValue(String key, String value, String requestId, String clientID) throws RemoteException, Exception {
+        return putValue(key, value, 0, requestId, clientID);
+    }
+
+    @Override
+    public Boolean putValue(String key, String value, long ttlMillis, String requestId, String clientID)
+            throws RemoteException, Exception {
+        profiler.recordRequest(key);
         if (isReplicationNeeded) {
             coordinator.prepareTransaction(key);
         }
         if (proceed) {
+            long waitStart = System.nanoTime();
             lock.lock(); // Acquire the lock
+            profiler.recordLockWait(WRITER_LOCK, key, System.nanoTime() - waitStart);
             try {
                 LOGGER.log(Level.INFO, "Request to put value: Key - " + key + ", Value - " + value +
                         " (Request ID: " + requestId + ")" + "(Client ID: " + clientID + ")");
-                keyValueStore.put(key, value);
+                // Replicas receive the absolute deadline so every copy expires at the same time
+                long expiresAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : 0;
+                long timestamp = nextTimestamp();
+                storePut(key, value, expiresAt, timestamp);
+                List<ReplicaEntry> evicted = evictToFit(key);
                 LOGGER.log(Level.INFO, "Value inserted successfully: Key - " + key + ", Value - " + value +
                         " (Request ID: " + requestId + ")" + "(Client ID: " + clientID + ")");
                 if (isReplicationNeeded) {
-                    // Send put request to all participants except this one
+                    // Send put request and the resulting evictions to all participants except this one
                     for (KeyValueService participant : coordinator.getParticipants()) {
                         if (!participant.equals(this)) {
-                            participant.go(key, value);
+                            participant.go(key, value, expiresAt, timestamp);
+                            for (ReplicaEntry evictedEntry : evicted) {
+                                participant.remove(evictedEntry.getKey(), evictedEntry.getTimestamp());
+                            }
+                        }
+                    }
+                }
+                return true;
+            } finally {
+                lock.unlock(); // Release the lock in a final block
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Boolean bulkLoad(Map<String, String> entries, String requestId, String clientID) throws RemoteException, Exception {
+        if (entries.size() > MAX_BULK_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Bulk chunk of " + entries.size() + " entries exceeds the limit of " +
+                    MAX_BULK_CHUNK_SIZE);
+        }
+        // One prepare/commit round covers the whole chunk
+        if (isReplicationNeeded) {
+            coordinator.prepareTransaction("bulk:" + requestId);
+        }
+        if (proceed) {
+            long waitStart = System.nanoTime();
+            lock.lock(); // Acquire the lock
+            profiler.recordLockWait(WRITER_LOCK, "bulk:" + requestId, System.nanoTime() - waitStart);
+            try {
+                long timestamp = nextTimestamp();
+                List<ReplicaEntry> chunk = new ArrayList<>(entries.size());
+                for (Map.Entry<String, String> entry : entries.entrySet()) {
+                    chunk.add(new ReplicaEntry(entry.getKey(), entry.getValue(), 0, timestamp));
+                }
+                synchronized (keyValueStore) {
+                    // The chunk and its evictions are published as a single commit
+                    boolean batch = beginBatch();
+                    try {
+                        applyEntries(chunk);
+                        chunk.addAll(evictToFit(null));
+                    } finally {
+                        endBatch(batch);
+                    }
+                }
+                LOGGER.log(Level.INFO, "Bulk chunk loaded: " + entries.size() + " entries" +
+                        " (Request ID: " + requestId + ")" + "(Client ID: " + clientID + ")");
+                if (isReplicationNeeded) {
+                    // Send the chunk and the resulting evictions to each other participant in one call
+                    for (KeyValueService participant : coordinator.getParticipants()) {
+                        if (!participant.equals(this)) {
+                            participant.applyEntries(chunk);
                         }
                     }
                 }
@@ -91,15 +291,19 @@ public class KeyValueServiceImpl extends UnicastRemoteObject implements KeyValue
 
     @Override
     public Boolean deleteValue(String key, String requestId, String clientID) throws RemoteException, Exception {
+        profiler.recordRequest(key);
         if (isReplicationNeeded) {
             coordinator.prepareTransaction(key);
         }
         if (proceed) {
+            long waitStart = System.nanoTime();
             lock.lock(); // Acquire the lock
+            profiler.recordLockWait(WRITER_LOCK, key, System.nanoTime() - waitStart);
             try {
                 LOGGER.log(Level.INFO, "Request to delete value for key: " + key +
                         " (Request ID: " + requestId + ")" + "(Client ID: " + clientID + ")");
-                boolean deleted = keyValueStore.remove(key) != null;
+                long timestamp = nextTimestamp();
+                boolean deleted = storeRemove(key, timestamp);
                 LOGGER.log(Level.INFO, "Value deletion status: Key - " + key + ", Deleted - " + deleted +
                         " (Request ID: " + requestId + ")" + "(Client ID: " + clientID + ")");
 
@@ -107,7 +311,7 @@ public class KeyValueServiceImpl extends UnicastRemoteObject implements KeyValue
                     // Send put request to all participants except this one
                     for (KeyValueService participant : coordinator.getParticipants()) {
                         if (!participant.equals(this)) {
-                            participant.remove(key);
+                            participant.remove(key, timestamp);
                         }
                     }
                 }
@@ -122,7 +326,7 @@ public class KeyValueServiceImpl extends UnicastRemoteObject implements KeyValue
     @Override
     public String prepare(String key) throws RemoteException {
         if(isDeleteFlag == 1){
-            if (!keyValueStore.containsKey(key)){
+            if (liveValue(key) == null){
                 return "NACK";
             }
         }else{
@@ -157,19 +361,497 @@ public class KeyValueServiceImpl extends UnicastRemoteObject implements KeyValue
     }
 
     public String go(String key, String value) throws RemoteException {
+        return go(key, value, 0, nextTimestamp());
+    }
+
+    public String go(String key, String value, long expiresAt, long timestamp) throws RemoteException {
         // Update the local store
+        observeTimestamp(timestamp);
+        long waitStart = System.nanoTime();
         synchronized (keyValueStore) {
-            keyValueStore.put(key, value);
+            profiler.recordLockWait(STORE_MONITOR, key, System.nanoTime() - waitStart);
+            storePut(key, value, expiresAt, timestamp);
         }
         return "ACK";
     }
 
     public String remove(String key) throws RemoteException {
+        return remove(key, nextTimestamp());
+    }
+
+    public String remove(String key, long timestamp) throws RemoteException {
         // Update the local store
+        observeTimestamp(timestamp);
+        long waitStart = System.nanoTime();
         synchronized (keyValueStore) {
-            keyValueStore.remove(key);
+            profiler.recordLockWait(STORE_MONITOR, key, System.nanoTime() - waitStart);
+            storeRemove(key, timestamp);
         }
         return "ACK";
     }
 
-}
\ No newline at end of file
+    @Override
+    public long[] getMerkleHashes(int level, int[] indices) throws RemoteException {
+        return merkleTree.hashes(level, indices);
+    }
+
+    @Override
+    public List<ReplicaEntry> getBucketEntries(int[] buckets) throws RemoteException {
+        boolean[] selected = new boolean[MerkleTree.LEAF_COUNT];
+        for (int bucket : buckets) {
+            selected[bucket] = true;
+        }
+        List<ReplicaEntry> entries = new ArrayList<>();
+        for (Map.Entry<String, VersionedValue> entry : keyValueStore.entrySet()) {
+            if (selected[MerkleTree.bucketOf(entry.getKey())]) {
+                VersionedValue head = entry.getValue();
+                entries.add(new ReplicaEntry(entry.getKey(), head.getValue(), head.getExpiresAt(), head.getTimestamp()));
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public void applyEntries(List<ReplicaEntry> entries) throws RemoteException {
+        synchronized (keyValueStore) {
+            // The entries become visible to snapshot readers together, under one commit version
+            boolean batch = beginBatch();
+            try {
+                for (ReplicaEntry entry : entries) {
+                    observeTimestamp(entry.getTimestamp());
+                    if (entry.getValue() == null) {
+                        storeRemove(entry.getKey(), entry.getTimestamp());
+                    } else {
+                        storePut(entry.getKey(), entry.getValue(), entry.getExpiresAt(), entry.getTimestamp());
+                    }
+                }
+            } finally {
+                endBatch(batch);
+            }
+        }
+    }
+
+    /**
+     * Stops the background expiry, garbage-collection and anti-entropy tasks of this participant.
+     */
+    public void shutdown() {
+        expiryExecutor.shutdownNow();
+        antiEntropyExecutor.shutdownNow();
+    }
+
+    @Override
+    public HotKeyReport getHotKeyReport(int k) throws RemoteException {
+        return profiler.report(k);
+    }
+
+    /**
+     * Runs one anti-entropy round against a randomly chosen peer. Runs on the anti-entropy thread.
+     */
+    private void runAntiEntropy() {
+        try {
+            if (coordinator == null) {
+                return;
+            }
+            List<KeyValueService> peers = new ArrayList<>();
+            for (KeyValueService participant : coordinator.getParticipants()) {
+                if (!participant.equals(this)) {
+                    peers.add(participant);
+                }
+            }
+            if (peers.isEmpty()) {
+                return;
+            }
+            int repaired = AntiEntropy.reconcile(this, peers.get(random.nextInt(peers.size())));
+            if (repaired > 0) {
+                LOGGER.log(Level.INFO, "Anti-entropy repaired " + repaired + " diverged entries");
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Anti-entropy round failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public ScanPage scanRange(String startKey, String endKey, String continuationToken, int pageSize) throws RemoteException {
+        return nextPage(requireOrderedIndex(), startKey, endKey, null, continuationToken, pageSize);
+    }
+
+    @Override
+    public ScanPage scanPrefix(String prefix, String continuationToken, int pageSize) throws RemoteException {
+        return nextPage(requireOrderedIndex(), prefix, null, prefix, continuationToken, pageSize);
+    }
+
+    @Override
+    public ScanPage exportPage(String continuationToken, int pageSize) throws RemoteException {
+        if (orderedIndex != null) {
+            return scanRange(null, null, continuationToken, pageSize);
+        }
+        // Without the index, walk the store itself with an iterator kept between calls
+        String token = continuationToken;
+        ExportCursor cursor;
+        if (token == null) {
+            token = UUID.randomUUID().toString();
+            cursor = new ExportCursor(keyValueStore.entrySet().iterator());
+        } else {
+            cursor = exportCursors.remove(token);
+            if (cursor == null) {
+                throw new IllegalArgumentException("Export cursor " + token + " is unknown or has expired");
+            }
+        }
+        int limit = Math.max(1, Math.min(pageSize, MAX_SCAN_PAGE_SIZE));
+        long now = System.currentTimeMillis();
+        LinkedHashMap<String, String> entries = new LinkedHashMap<>();
+        while (entries.size() < limit && cursor.entries.hasNext()) {
+            Map.Entry<String, VersionedValue> entry = cursor.entries.next();
+            VersionedValue head = entry.getValue();
+            if (!head.isTombstone() && !head.isExpired(now)) {
+                entries.put(entry.getKey(), head.getValue());
+            }
+        }
+        if (!cursor.entries.hasNext()) {
+            return new ScanPage(entries, null);
+        }
+        cursor.lastUsedMillis = now;
+        exportCursors.put(token, cursor);
+        return new ScanPage(entries, token);
+    }
+
+    /**
+     * Drops export cursors that their client has stopped paging through. Runs on the expiry thread.
+     */
+    private void dropIdleExportCursors() {
+        long cutoff = System.currentTimeMillis() - EXPORT_CURSOR_IDLE_MILLIS;
+        exportCursors.values().removeIf(cursor -> cursor.lastUsedMillis < cutoff);
+    }
+
+    /**
+     * Collects the next page of a scan. The continuation token is the last key of the previous page, so
+     * a page resumes strictly after it and never holds more than a bounded number of entries. An empty
+     * range, or a token outside the range, yields an empty final page.
+     *
+     * @param startKey The inclusive lower bound, or null for none.
+     * @param endKey   The exclusive upper bound, or null for none.
+     * @param prefix   The prefix every returned key must start with, or null for none.
+     */
+    private ScanPage nextPage(NavigableSet<String> keys, String startKey, String endKey, String prefix,
+                              String continuationToken, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_SCAN_PAGE_SIZE));
+        String lowerKey = startKey;
+        boolean lowerInclusive = true;
+        if (continuationToken != null && (lowerKey == null || continuationToken.compareTo(lowerKey) >= 0)) {
+            lowerKey = continuationToken;
+            lowerInclusive = false;
+        }
+        LinkedHashMap<String, String> entries = new LinkedHashMap<>();
+        // Check the bounds here, since a sub-set view rejects an inverted range
+        if (lowerKey != null && endKey != null && lowerKey.compareTo(endKey) >= 0) {
+            return new ScanPage(entries, null);
+        }
+        if (lowerKey != null) {
+            keys = keys.tailSet(lowerKey, lowerInclusive);
+        }
+        if (endKey != null) {
+            keys = keys.headSet(endKey, false);
+        }
+        String lastKey = null;
+        for (String key : keys) {
+            if (prefix != null && !key.startsWith(prefix)) {
+                return new ScanPage(entries, null);
+            }
+            if (entries.size() == limit) {
+                return new ScanPage(entries, lastKey);
+            }
+            // The index may briefly hold a key whose value is being removed concurrently
+            String value = liveValue(key);
+            if (value != null) {
+                entries.put(key, value);
+                lastKey = key;
+            }
+        }
+        return new ScanPage(entries, null);
+    }
+
+    private NavigableSet<String> requireOrderedIndex() {
+        if (orderedIndex == null) {
+            throw new UnsupportedOperationException("Ordered index is disabled on this participant");
+        }
+        return orderedIndex;
+    }
+
+    /**
+     * Retrieves the value for the key, treating entries past their TTL as absent even if the expiry
+     * thread has not removed them yet.
+     */
+    private String liveValue(String key) {
+        VersionedValue head = keyValueStore.get(key);
+        if (head == null || head.isTombstone() || head.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return head.getValue();
+    }
+
+    /**
+     * Issues a write timestamp that is later than every timestamp this participant has seen.
+     */
+    private long nextTimestamp() {
+        return lastTimestamp.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    }
+
+    private void observeTimestamp(long timestamp) {
+        lastTimestamp.accumulateAndGet(timestamp, Math::max);
+    }
+
+    /**
+     * Checks whether a write is older than the key's current version, as happens when a repair or a
+     * late replication call races a newer write.
+     */
+    private static boolean isStale(VersionedValue head, String value, long timestamp) {
+        return head != null && !ReplicaEntry.wins(timestamp, value, head.getTimestamp(), head.getValue());
+    }
+
+    /**
+     * Stores the key-value pair and keeps the ordered index, expiry schedule and memory accounting in
+     * sync with the primary store. Writes older than the key's current version are ignored.
+     *
+     * @param expiresAt The absolute expiry time in milliseconds, or 0 if the key never expires.
+     * @param timestamp The write timestamp assigned by the participant that accepted the write.
+     */
+    private void storePut(String key, String value, long expiresAt, long timestamp) {
+        synchronized (keyValueStore) {
+            if (isStale(keyValueStore.get(key), value, timestamp)) {
+                return;
+            }
+            VersionedValue previous = commitVersion(key, value, expiresAt, timestamp);
+            usedMemoryBytes.addAndGet(entrySize(key, value) - liveSize(key, previous));
+            if (previous != null && previous.isTombstone()) {
+                tombstoneBytes.addAndGet(-tombstoneSize(key));
+            }
+            if (orderedIndex != null) {
+                orderedIndex.add(key);
+            }
+            synchronized (expiryWheel) {
+                // Replacing the key's timer keeps one pending timer per key however often it is refreshed
+                if (expiresAt > 0) {
+                    expiryWheel.schedule(key, expiresAt);
+                } else {
+                    expiryWheel.cancel(key);
+                }
+            }
+            if (evictionTracker != null) {
+                evictionTracker.recordWrite(key);
+            }
+        }
+    }
+
+    /**
+     * Removes the key from the primary store and all of its secondary structures.
+     *
+     * @param timestamp The write timestamp assigned by the participant that accepted the delete.
+     * @return true if the key was present and had not expired.
+     */
+    private boolean storeRemove(String key, long timestamp) {
+        synchronized (keyValueStore) {
+            VersionedValue previous = keyValueStore.get(key);
+            if (previous == null || previous.isTombstone() || isStale(previous, null, timestamp)) {
+                return false;
+            }
+            boolean live = !previous.isExpired(System.currentTimeMillis());
+            // Leave a tombstone so readers at older snapshots and replica repair still see the delete
+            commitVersion(key, null, 0, timestamp);
+            usedMemoryBytes.addAndGet(-liveSize(key, previous));
+            tombstoneBytes.addAndGet(tombstoneSize(key));
+            if (orderedIndex != null) {
+                orderedIndex.remove(key);
+            }
+            synchronized (expiryWheel) {
+                expiryWheel.cancel(key);
+            }
+            if (evictionTracker != null) {
+                evictionTracker.remove(key);
+            }
+            return live;
+        }
+    }
+
+    /**
+     * Installs a new version of the key and publishes its commit version, or leaves publishing to the
+     * end of the open batch. Callers hold the monitor of keyValueStore, so versions are assigned in
+     * commit order and a reader that sees a commit version also sees every value written at or before it.
+     *
+     * @param value The new value, or null to record a delete.
+     * @return The version that was replaced, or null if the key had no versions.
+     */
+    private VersionedValue commitVersion(String key, String value, long expiresAt, long timestamp) {
+        long version = batchVersion > 0 ? batchVersion : committedVersion + 1;
+        VersionedValue previous = keyValueStore.get(key);
+        VersionedValue current = new VersionedValue(value, version, expiresAt, timestamp, previous);
+        keyValueStore.put(key, current);
+        merkleTree.update(key, MerkleTree.entryHash(key, previous), MerkleTree.entryHash(key, current));
+        if (batchVersion > 0) {
+            batchWritten = true;
+        } else {
+            committedVersion = version;
+        }
+        if (previous != null) {
+            versionGcQueue.add(key);
+        }
+        return previous;
+    }
+
+    /**
+     * Opens a batch whose writes share one commit version, unless one is already open. Callers hold the
+     * monitor of keyValueStore until the matching endBatch.
+     *
+     * @return true if this call opened the batch and must close it.
+     */
+    private boolean beginBatch() {
+        if (batchVersion > 0) {
+            return false;
+        }
+        batchVersion = committedVersion + 1;
+        return true;
+    }
+
+    /**
+     * Closes the batch opened by beginBatch, publishing its version if it installed any write.
+     *
+     * @param opened The result of the matching beginBatch.
+     */
+    private void endBatch(boolean opened) {
+        if (!opened) {
+            return;
+        }
+        if (batchWritten) {
+            committedVersion = batchVersion;
+        }
+        batchVersion = 0;
+        batchWritten = false;
+    }
+
+    /**
+     * Drops versions that no reader can see any more and removes keys whose only remaining version is
+     * a tombstone past its grace period. Runs on the expiry thread.
+     */
+    private void collectOldVersions() {
+        try {
+            long now = System.currentTimeMillis();
+            long watermark = snapshotRegistry.watermark(committedVersion);
+            // Only visit the keys queued so far; keys re-queued below wait for the next run
+            for (int i = versionGcQueue.size(); i > 0; i--) {
+                String key = versionGcQueue.poll();
+                if (key == null) {
+                    break;
+                }
+                VersionedValue head = keyValueStore.get(key);
+                if (head == null) {
+                    continue;
+                }
+                if (head.prune(watermark)) {
+                    versionGcQueue.add(key);
+                } else if (head.isTombstone()) {
+                    tombstoneQueue.add(key);
+                }
+            }
+            // Tombstones are queued roughly in delete order, so stop at the first one still in its grace period
+            String key;
+            while ((key = tombstoneQueue.peek()) != null) {
+                VersionedValue head = keyValueStore.get(key);
+                if (head != null && head.isTombstone() && head.getTimestamp() + TOMBSTONE_GRACE_MILLIS > now) {
+                    break;
+                }
+                tombstoneQueue.poll();
+                synchronized (keyValueStore) {
+                    // Under the monitor so a concurrent write cannot also release the tombstone's memory
+                    if (head != null && head.isTombstone() && keyValueStore.remove(key, head)) {
+                        tombstoneBytes.addAndGet(-tombstoneSize(key));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error collecting old versions", e);
+        }
+    }
+
+    /**
+     * Evicts entries chosen by the eviction policy until the store fits its memory cap. Only the
+     * participant accepting a write evicts; the evicted keys are replicated as removes so every
+     * replica drops the same entries.
+     *
+     * @param writtenKey The key just written, which is never chosen as a victim, or null for none.
+     * @return The evicted keys with the delete timestamps to replicate.
+     */
+    private List<ReplicaEntry> evictToFit(String writtenKey) {
+        if (evictionTracker == null || usedMemoryBytes.get() <= maxMemoryBytes) {
+            return Collections.emptyList();
+        }
+        List<ReplicaEntry> evicted = new ArrayList<>();
+        synchronized (keyValueStore) {
+            while (usedMemoryBytes.get() > maxMemoryBytes) {
+                String victim = evictionTracker.victim(writtenKey);
+                if (victim == null) {
+                    break;
+                }
+                long timestamp = nextTimestamp();
+                storeRemove(victim, timestamp);
+                evicted.add(new ReplicaEntry(victim, null, 0, timestamp));
+            }
+        }
+        LOGGER.log(Level.INFO, "Evicted " + evicted.size() + " keys to stay within " + maxMemoryBytes + " bytes (" +
+                tombstoneBytes.get() + " bytes of tombstones awaiting collection)");
+        return evicted;
+    }
+
+    /**
+     * Removes the keys whose TTL has elapsed. Runs on the expiry thread once per wheel tick.
+     */
+    private void expireDueKeys() {
+        try {
+            long now = System.currentTimeMillis();
+            List<String> due;
+            synchronized (expiryWheel) {
+                due = expiryWheel.advance(now);
+            }
+            for (String key : due) {
+                synchronized (keyValueStore) {
+                    // Skip keys already deleted or rewritten since their timer fired
+                    VersionedValue head = keyValueStore.get(key);
+                    if (head != null && !head.isTombstone() && head.isExpired(now)) {
+                        // Deleting at the deadline gives every replica an identical tombstone. A write
+                        // timestamp can run ahead of the clock, so never date the delete before the write.
+                        storeRemove(key, Math.max(head.getExpiresAt(), head.getTimestamp()));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error expiring keys", e);
+        }
+    }
+
+    private static long entrySize(String key, String value) {
+        return 2L * (key.length() + value.length()) + ENTRY_OVERHEAD_BYTES;
+    }
+
+    /**
+     * Estimates the size of a tombstone, which holds the key until it is collected.
+     */
+    private static long tombstoneSize(String key) {
+        return 2L * key.length() + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private static long liveSize(String key, VersionedValue version) {
+        return version == null || version.isTombstone() ? 0 : entrySize(key, version.getValue());
+    }
+
+    /**
+     * Position of an export that pages through the store without the ordered index. The iterator is
+     * weakly consistent: every key present for the whole export is returned exactly once.
+     */
+    private static class ExportCursor {
+        private final Iterator<Map.Entry<String, VersionedValue>> entries;
+        private volatile long lastUsedMillis;
+
+        private ExportCursor(Iterator<Map.Entry<String, VersionedValue>> entries) {
+            this.entries = entries;
+            this.lastUsedMillis = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package server;
+
+import java.util.Arrays;
+
+/**
+ * Records operation latencies and reports percentiles for the cluster simulator.
+ */
+public class LatencyRecorder {
+  private long[] samples = new long[1024]; // Latencies in nanoseconds
+  private int count;
+  private long aborts;
+  private long errors;
+
+  /**
+   * Records the latency of a committed operation.
+   *
+   * @param nanos The latency in nanoseconds.
+   */
+  public synchronized void record(long nanos) {
+    if (count == samples.length) {
+      samples = Arrays.copyOf(samples, count * 2);
+    }
+    samples[count++] = nanos;
+  }
+
+  /**
+   * Records an operation that completed but was aborted by the transaction protocol.
+   */
+  public synchronized void recordAbort() {
+    aborts++;
+  }
+
+  /**
+   * Records a failed operation.
+   */
+  public synchronized void recordError() {
+    errors++;
+  }
+
+  public synchronized int getCount() {
+    return count;
+  }
+
+  public synchronized long getAborts() {
+    return aborts;
+  }
+
+  public synchronized long getErrors() {
+    return errors;
+  }
+
+  /**
+   * Computes a latency percentile over the committed operations.
+   *
+   * @param percentile The percentile in (0, 100].
+   * @return The latency in milliseconds, or 0 if nothing was recorded.
+   */
+  public synchronized double percentileMillis(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long[] sorted = Arrays.copyOf(samples, count);
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+    return sorted[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+  }
+
+  /**
+   * Formats the count, abort and error counts and latency percentiles on one line.
+   *
+   * @return The summary line.
+   */
+  public synchronized String summary() {
+    return String.format("ok=%d aborted=%d errors=%d p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+            count, aborts, errors, percentileMillis(50), percentileMillis(90), percentileMillis(99),
+            percentileMillis(99.9), percentileMillis(100));
+  }
+}
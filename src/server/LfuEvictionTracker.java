@@ -0,0 +1,67 @@
+package server;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * EvictionTracker that evicts the least frequently used key. Keys are grouped into buckets by access
+ * count; within a bucket the least recently promoted key is evicted first.
+ */
+public class LfuEvictionTracker implements EvictionTracker {
+  private final Map<String, Long> counts = new HashMap<>(); // Access count per key
+  private final TreeMap<Long, LinkedHashSet<String>> buckets = new TreeMap<>(); // Keys grouped by access count
+
+  @Override
+  public synchronized void recordWrite(String key) {
+    if (!counts.containsKey(key)) {
+      counts.put(key, 1L);
+      buckets.computeIfAbsent(1L, c -> new LinkedHashSet<>()).add(key);
+    } else {
+      increment(key);
+    }
+  }
+
+  @Override
+  public synchronized void recordRead(String key) {
+    if (counts.containsKey(key)) {
+      increment(key);
+    }
+  }
+
+  @Override
+  public synchronized void remove(String key) {
+    Long count = counts.remove(key);
+    if (count != null) {
+      removeFromBucket(key, count);
+    }
+  }
+
+  @Override
+  public synchronized String victim(String excludedKey) {
+    for (LinkedHashSet<String> bucket : buckets.values()) {
+      for (String key : bucket) {
+        if (!key.equals(excludedKey)) {
+          return key;
+        }
+      }
+    }
+    return null;
+  }
+
+  private void increment(String key) {
+    long count = counts.get(key);
+    removeFromBucket(key, count);
+    counts.put(key, count + 1);
+    buckets.computeIfAbsent(count + 1, c -> new LinkedHashSet<>()).add(key);
+  }
+
+  private void removeFromBucket(String key, long count) {
+    LinkedHashSet<String> bucket = buckets.get(count);
+    bucket.remove(key);
+    if (bucket.isEmpty()) {
+      buckets.remove(count);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package server;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Faults injected on the simulated network link into one node of the cluster simulator.
+ */
+public class LinkFaults {
+  /** A healthy link with no delay, drops or crash. */
+  public static final LinkFaults NONE = new LinkFaults(0, 0, 0, -1);
+
+  private final long delayMillis; // Fixed delay added to every call
+  private final long jitterMillis; // Extra uniformly random delay in [0, jitterMillis]
+  private final double dropRate; // Probability that a call is lost before reaching the node
+  private final Set<String> dropMethods; // Methods subject to drops, empty for all methods
+  private final long crashAtOperation; // Client operation index from which the node is down, -1 to never crash
+
+  /**
+   * Constructs a LinkFaults object that applies drops to every method.
+   *
+   * @param delayMillis      The fixed delay added to every call, in milliseconds.
+   * @param jitterMillis     The maximum extra random delay, in milliseconds.
+   * @param dropRate         The probability in [0, 1] that a call is dropped.
+   * @param crashAtOperation The index in each client's sequence of the first operation that finds the
+   *                         node crashed, or -1 to never crash.
+   */
+  public LinkFaults(long delayMillis, long jitterMillis, double dropRate, long crashAtOperation) {
+    this(delayMillis, jitterMillis, dropRate, crashAtOperation, new String[0]);
+  }
+
+  /**
+   * Constructs a LinkFaults object that applies drops only to the given methods.
+   *
+   * @param delayMillis      The fixed delay added to every call, in milliseconds.
+   * @param jitterMillis     The maximum extra random delay, in milliseconds.
+   * @param dropRate         The probability in [0, 1] that a call is dropped.
+   * @param crashAtOperation The index in each client's sequence of the first operation that finds the
+   *                         node crashed, or -1 to never crash.
+   * @param dropMethods      The remote method names that may be dropped, e.g. "prepare".
+   */
+  public LinkFaults(long delayMillis, long jitterMillis, double dropRate, long crashAtOperation, String... dropMethods) {
+    this.delayMillis = delayMillis;
+    this.jitterMillis = jitterMillis;
+    this.dropRate = dropRate;
+    this.crashAtOperation = crashAtOperation;
+    this.dropMethods = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(dropMethods)));
+  }
+
+  public long getDelayMillis() {
+    return delayMillis;
+  }
+
+  public long getJitterMillis() {
+    return jitterMillis;
+  }
+
+  public double getDropRate() {
+    return dropRate;
+  }
+
+  public long getCrashAtOperation() {
+    return crashAtOperation;
+  }
+
+  /**
+   * Checks whether calls to the given method may be dropped.
+   *
+   * @param methodName The remote method name.
+   * @return true if the drop rate applies to the method.
+   */
+  public boolean dropsMethod(String methodName) {
+    return dropMethods.isEmpty() || dropMethods.contains(methodName);
+  }
+
+  @Override
+  public String toString() {
+    return "delay=" + delayMillis + "ms, jitter=" + jitterMillis + "ms, drop=" + dropRate +
+            (dropMethods.isEmpty() ? "" : " of " + dropMethods) +
+            (crashAtOperation >= 0 ? ", crash at operation " + crashAtOperation : "");
+  }
+}
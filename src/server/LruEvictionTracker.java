@@ -0,0 +1,35 @@
+package server;
+
+import java.util.LinkedHashMap;
+
+/**
+ * EvictionTracker that evicts the least recently used key, backed by an access-ordered LinkedHashMap.
+ */
+public class LruEvictionTracker implements EvictionTracker {
+  private final LinkedHashMap<String, Boolean> accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+
+  @Override
+  public synchronized void recordWrite(String key) {
+    accessOrder.put(key, Boolean.TRUE);
+  }
+
+  @Override
+  public synchronized void recordRead(String key) {
+    accessOrder.get(key); // Moves the key to the most recently used position
+  }
+
+  @Override
+  public synchronized void remove(String key) {
+    accessOrder.remove(key);
+  }
+
+  @Override
+  public synchronized String victim(String excludedKey) {
+    for (String key : accessOrder.keySet()) {
+      if (!key.equals(excludedKey)) {
+        return key;
+      }
+    }
+    return null;
+  }
+}
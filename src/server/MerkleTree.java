@@ -0,0 +1,110 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Merkle tree over the keys of one participant, used to find diverged key ranges between replicas.
+ *
+ * <p>Keys are hashed into a fixed number of leaf buckets. Each leaf holds the XOR of the hashes of
+ * its live entries, so a write updates its leaf in constant time without re-hashing the bucket.
+ * Inner nodes are derived from the leaves on demand; with 1024 leaves that is about a thousand
+ * hash operations per query.
+ */
+public class MerkleTree {
+  public static final int DEPTH = 10; // Levels below the root; leaves are at level DEPTH
+  public static final int LEAF_COUNT = 1 << DEPTH;
+
+  private final AtomicLongArray leaves = new AtomicLongArray(LEAF_COUNT);
+
+  /**
+   * Computes the leaf bucket of a key.
+   *
+   * @param key The key.
+   * @return The bucket index in [0, LEAF_COUNT).
+   */
+  public static int bucketOf(String key) {
+    return (int) (hash(key) >>> (Long.SIZE - DEPTH));
+  }
+
+  /**
+   * Computes the hash an entry contributes to its leaf. Deleted keys contribute nothing, so a replica
+   * that has already collected a tombstone matches one that still holds it.
+   *
+   * @param key   The key.
+   * @param value The current version of the key, or null if there is none.
+   * @return The entry hash, or 0 for an absent or deleted key.
+   */
+  public static long entryHash(String key, VersionedValue value) {
+    if (value == null || value.isTombstone()) {
+      return 0;
+    }
+    long h = hash(key);
+    h = mix(h ^ hash(value.getValue()));
+    h = mix(h ^ value.getExpiresAt());
+    return mix(h ^ value.getTimestamp());
+  }
+
+  /**
+   * Replaces an entry's contribution to its leaf.
+   *
+   * @param key          The key that changed.
+   * @param oldEntryHash The entry hash before the change.
+   * @param newEntryHash The entry hash after the change.
+   */
+  public void update(String key, long oldEntryHash, long newEntryHash) {
+    long delta = oldEntryHash ^ newEntryHash;
+    if (delta == 0) {
+      return;
+    }
+    int bucket = bucketOf(key);
+    long current;
+    do {
+      current = leaves.get(bucket);
+    } while (!leaves.compareAndSet(bucket, current, current ^ delta));
+  }
+
+  /**
+   * Retrieves the hashes of selected nodes at one level of the tree.
+   *
+   * @param level   The level, from 0 (the root) to DEPTH (the leaves).
+   * @param indices The node indices within the level, each in [0, 2^level).
+   * @return The node hashes in the order of indices.
+   */
+  public long[] hashes(int level, int[] indices) {
+    if (level < 0 || level > DEPTH) {
+      throw new IllegalArgumentException("Level must be between 0 and " + DEPTH);
+    }
+    long[] nodes = new long[LEAF_COUNT];
+    for (int i = 0; i < LEAF_COUNT; i++) {
+      nodes[i] = leaves.get(i);
+    }
+    for (int depth = DEPTH; depth > level; depth--) {
+      int width = 1 << (depth - 1);
+      for (int i = 0; i < width; i++) {
+        nodes[i] = mix(nodes[2 * i] * 31 + mix(nodes[2 * i + 1]));
+      }
+    }
+    long[] result = new long[indices.length];
+    for (int i = 0; i < indices.length; i++) {
+      result[i] = nodes[indices[i]];
+    }
+    return result;
+  }
+
+  private static long hash(String s) {
+    // 64-bit FNV-1a over the UTF-16 code units
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < s.length(); i++) {
+      h ^= s.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    return mix(h);
+  }
+
+  private static long mix(long z) {
+    // SplitMix64 finalizer
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,92 @@
+package server;
+
+import java.io.Serializable;
+
+/**
+ * The latest state of one key as exchanged between replicas during anti-entropy repair.
+ */
+public class ReplicaEntry implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final String key;
+  private final String value; // The value, or null if the key was deleted
+  private final long expiresAt; // Absolute expiry time in milliseconds, 0 if the value never expires
+  private final long timestamp; // Write time assigned by the participant that accepted the write
+
+  /**
+   * Constructs a ReplicaEntry object.
+   *
+   * @param key       The key.
+   * @param value     The value, or null if the key was deleted.
+   * @param expiresAt The absolute expiry time in milliseconds, or 0 if the value never expires.
+   * @param timestamp The write time assigned by the participant that accepted the write.
+   */
+  public ReplicaEntry(String key, String value, long expiresAt, long timestamp) {
+    this.key = key;
+    this.value = value;
+    this.expiresAt = expiresAt;
+    this.timestamp = timestamp;
+  }
+
+  /**
+   * Retrieves the key.
+   *
+   * @return The key.
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Retrieves the value.
+   *
+   * @return The value, or null if the key was deleted.
+   */
+  public String getValue() {
+    return value;
+  }
+
+  /**
+   * Retrieves the absolute expiry time.
+   *
+   * @return The expiry time in milliseconds, or 0 if the value never expires.
+   */
+  public long getExpiresAt() {
+    return expiresAt;
+  }
+
+  /**
+   * Retrieves the write timestamp.
+   *
+   * @return The write time in milliseconds.
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Checks whether this entry should replace another replica's state of the same key.
+   *
+   * @param other The other replica's entry, or null if it does not have the key.
+   * @return true if this entry wins under last-writer-wins ordering.
+   */
+  public boolean supersedes(ReplicaEntry other) {
+    return other == null || wins(timestamp, value, other.timestamp, other.value);
+  }
+
+  /**
+   * Orders two writes of the same key by timestamp, breaking ties on the value so that every replica
+   * picks the same winner.
+   *
+   * @return true if the first write wins over the second.
+   */
+  public static boolean wins(long timestamp, String value, long otherTimestamp, String otherValue) {
+    if (timestamp != otherTimestamp) {
+      return timestamp > otherTimestamp;
+    }
+    if (value == null || otherValue == null) {
+      return value == null && otherValue != null; // A delete wins a tie with a put
+    }
+    return value.compareTo(otherValue) > 0;
+  }
+}
@@ -0,0 +1,54 @@
+package server;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single bounded page of a key scan or export.
+ */
+public class ScanPage implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final LinkedHashMap<String, String> entries; // Entries of this page in scan order
+  private final String continuationToken; // Token for the next page, or null when the scan is complete
+
+  /**
+   * Constructs a ScanPage object.
+   *
+   * @param entries           The entries of this page in scan order.
+   * @param continuationToken The token to request the next page with, or null if there are no more pages.
+   */
+  public ScanPage(LinkedHashMap<String, String> entries, String continuationToken) {
+    this.entries = entries;
+    this.continuationToken = continuationToken;
+  }
+
+  /**
+   * Retrieves the entries of this page.
+   *
+   * @return The entries in scan order.
+   */
+  public Map<String, String> getEntries() {
+    return Collections.unmodifiableMap(entries);
+  }
+
+  /**
+   * Retrieves the token to pass back to continue the scan.
+   *
+   * @return The continuation token, or null if the scan is complete.
+   */
+  public String getContinuationToken() {
+    return continuationToken;
+  }
+
+  /**
+   * Checks whether more pages are available after this one.
+   *
+   * @return true if the scan has more pages, false otherwise.
+   */
+  public boolean hasMore() {
+    return continuationToken != null;
+  }
+}
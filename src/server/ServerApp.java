@@ -27,9 +27,14 @@ public class ServerApp {
       List<String> participantHosts = Arrays.asList("localhost", "localhost", "localhost", "localhost", "localhost");
       List<Integer> participantPorts = Arrays.asList(5001, 5002, 5003, 5004, 5005);
 
+      // Read store options, e.g. -Dkv.maxMemoryBytes=67108864 -Dkv.evictionPolicy=LFU
+      boolean orderedIndexEnabled = Boolean.parseBoolean(System.getProperty("kv.orderedIndex", "true"));
+      long maxMemoryBytes = Long.getLong("kv.maxMemoryBytes", 0L);
+      EvictionPolicy evictionPolicy = EvictionPolicy.valueOf(System.getProperty("kv.evictionPolicy", "LRU").toUpperCase());
+
       // Create and bind KeyValueService instances to registries
       for (int i = 0; i < 5; i++) {
-        KeyValueServiceImpl participant = new KeyValueServiceImpl ();
+        KeyValueServiceImpl participant = new KeyValueServiceImpl(orderedIndexEnabled, maxMemoryBytes, evictionPolicy);
         Registry participantRegistry = LocateRegistry.createRegistry(participantPorts.get(i));
         participantRegistry.bind("keyValueService", participant);
       }
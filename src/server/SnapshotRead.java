@@ -0,0 +1,44 @@
+package server;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The values of several keys read from a single consistent snapshot.
+ */
+public class SnapshotRead implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final long version; // Commit version the values were read at
+  private final Map<String, String> values; // Values of the keys that existed at that version
+
+  /**
+   * Constructs a SnapshotRead object.
+   *
+   * @param version The commit version the values were read at.
+   * @param values  The values of the requested keys that existed at that version.
+   */
+  public SnapshotRead(long version, Map<String, String> values) {
+    this.version = version;
+    this.values = values;
+  }
+
+  /**
+   * Retrieves the commit version of the snapshot.
+   *
+   * @return The snapshot version.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Retrieves the values read from the snapshot. Keys that did not exist are omitted.
+   *
+   * @return The key-value pairs visible at the snapshot version.
+   */
+  public Map<String, String> getValues() {
+    return Collections.unmodifiableMap(values);
+  }
+}
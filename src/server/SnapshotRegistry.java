@@ -0,0 +1,63 @@
+package server;
+
+import java.util.TreeMap;
+
+/**
+ * Tracks the snapshot versions held by in-flight readers so that old versions are only
+ * garbage-collected once no reader can still see them.
+ *
+ * <p>Writers never touch the registry; readers hold its monitor only to register and release a
+ * snapshot, so reads do not wait for writes.
+ */
+public class SnapshotRegistry {
+  private final TreeMap<Long, Integer> activeSnapshots = new TreeMap<>(); // Snapshot version -> reader count
+  private final int retainedVersions; // Recent commits kept readable even without an active reader
+  private long watermark; // Last watermark handed to the garbage collector
+
+  /**
+   * Constructs a SnapshotRegistry object.
+   *
+   * @param retainedVersions The number of most recent commits that stay readable by version.
+   */
+  public SnapshotRegistry(int retainedVersions) {
+    this.retainedVersions = retainedVersions;
+  }
+
+  /**
+   * Registers a reader at the given snapshot version.
+   *
+   * @param version The snapshot version to read at.
+   * @throws IllegalStateException if versions older than the requested one may already be collected.
+   */
+  public synchronized void open(long version) {
+    if (version < watermark) {
+      throw new IllegalStateException("Version " + version + " is no longer retained");
+    }
+    activeSnapshots.merge(version, 1, Integer::sum);
+  }
+
+  /**
+   * Releases a snapshot registered with {@link #open(long)}.
+   *
+   * @param version The snapshot version to release.
+   */
+  public synchronized void close(long version) {
+    activeSnapshots.computeIfPresent(version, (v, count) -> count == 1 ? null : count - 1);
+  }
+
+  /**
+   * Computes the oldest version any reader may still use. Versions older than the newest version
+   * at or before the watermark can be garbage-collected.
+   *
+   * @param committedVersion The latest committed version.
+   * @return The garbage-collection watermark.
+   */
+  public synchronized long watermark(long committedVersion) {
+    long candidate = Math.max(0, committedVersion - retainedVersions);
+    if (!activeSnapshots.isEmpty()) {
+      candidate = Math.min(candidate, activeSnapshots.firstKey());
+    }
+    watermark = Math.max(watermark, candidate);
+    return watermark;
+  }
+}
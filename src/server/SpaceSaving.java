@@ -0,0 +1,127 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving top-K tracker. It keeps at most a fixed number of counters, so memory stays bounded
+ * however many distinct keys are seen. A new key that arrives when all counters are taken replaces
+ * the smallest counter and inherits its count as the error bound. Any key whose true weight exceeds
+ * total / capacity is guaranteed to be tracked.
+ */
+public class SpaceSaving {
+  private final int capacity;
+  private final HashMap<String, Counter> counters = new HashMap<>();
+  private long evictedBound; // Upper bound on the weight of any key whose counter was replaced
+  private final TreeSet<Counter> byCount = new TreeSet<>((a, b) -> {
+    int cmp = Long.compare(a.count, b.count);
+    return cmp != 0 ? cmp : a.key.compareTo(b.key);
+  });
+
+  /**
+   * Constructs a SpaceSaving object.
+   *
+   * @param capacity The maximum number of keys tracked.
+   */
+  public SpaceSaving(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Adds weight to a key.
+   *
+   * @param key    The key.
+   * @param weight The weight to add, such as 1 per request or the nanoseconds spent waiting.
+   */
+  public synchronized void add(String key, long weight) {
+    Counter counter = counters.get(key);
+    if (counter == null) {
+      if (counters.size() < capacity) {
+        counter = new Counter(key, 0, 0);
+      } else {
+        Counter smallest = byCount.pollFirst();
+        counters.remove(smallest.key);
+        evictedBound = Math.max(evictedBound, smallest.count);
+        counter = new Counter(key, smallest.count, smallest.count);
+      }
+      counters.put(key, counter);
+    } else {
+      byCount.remove(counter);
+    }
+    counter.count += weight;
+    byCount.add(counter);
+  }
+
+  /**
+   * Retrieves the heaviest tracked keys.
+   *
+   * @param k The number of keys to return.
+   * @return Up to k keys, heaviest first.
+   */
+  public synchronized List<HotKeyReport.KeyStat> top(int k) {
+    List<HotKeyReport.KeyStat> result = new ArrayList<>(Math.min(k, counters.size()));
+    Iterator<Counter> it = byCount.descendingIterator();
+    while (it.hasNext() && result.size() < k) {
+      Counter counter = it.next();
+      result.add(new HotKeyReport.KeyStat(counter.key, counter.count, counter.error));
+    }
+    return result;
+  }
+
+  /**
+   * Adds this tracker's estimates to running totals, for merging trackers. A key this tracker does not
+   * hold may still have weight up to the returned bound, so the caller adds the sum of the bounds of
+   * all merged trackers to every key's count and error; the bound is subtracted here for the keys
+   * this tracker does hold.
+   *
+   * @param totals The totals to add to, mapping each key to {count, error}.
+   * @return The upper bound on the weight of any key this tracker does not hold.
+   */
+  public synchronized long addTo(Map<String, long[]> totals) {
+    long bound = counters.size() < capacity ? evictedBound : byCount.first().count;
+    for (Counter counter : counters.values()) {
+      long[] total = totals.computeIfAbsent(counter.key, key -> new long[2]);
+      total[0] += counter.count - bound;
+      total[1] += counter.error - bound;
+    }
+    return bound;
+  }
+
+  /**
+   * Halves every count so that the tracker follows recent traffic rather than all-time totals.
+   * Counters that drop to zero are released.
+   */
+  public synchronized void decay() {
+    List<Counter> all = new ArrayList<>(byCount);
+    byCount.clear();
+    evictedBound /= 2;
+    for (Counter counter : all) {
+      counter.count /= 2;
+      counter.error /= 2;
+      if (counter.count == 0) {
+        counters.remove(counter.key);
+      } else {
+        byCount.add(counter);
+      }
+    }
+  }
+
+  /**
+   * Weight tracked for a single key.
+   */
+  private static class Counter {
+    private final String key;
+    private long count;
+    private long error;
+
+    private Counter(String key, long count, long error) {
+      this.key = key;
+      this.count = count;
+      this.error = error;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-K tracker split into independent stripes. Each thread adds to the stripe chosen by
+ * its id, so concurrent requests rarely share a monitor; the stripes are merged only when a report is
+ * built. A stripe that does not track a key contributes its eviction bound to both the key's count and
+ * its error, so merged counts never underestimate the true weight.
+ */
+public class StripedSpaceSaving {
+  private static final int STRIPES = 16; // Power of two so a stripe can be picked with a mask
+
+  private final SpaceSaving[] stripes = new SpaceSaving[STRIPES];
+
+  /**
+   * Constructs a StripedSpaceSaving object.
+   *
+   * @param capacity The maximum number of keys tracked by each stripe.
+   */
+  public StripedSpaceSaving(int capacity) {
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new SpaceSaving(capacity);
+    }
+  }
+
+  /**
+   * Adds weight to a key in the calling thread's stripe.
+   *
+   * @param key    The key.
+   * @param weight The weight to add.
+   */
+  public void add(String key, long weight) {
+    long id = Thread.currentThread().getId();
+    stripes[(int) ((id ^ (id >>> 4)) & (STRIPES - 1))].add(key, weight);
+  }
+
+  /**
+   * Merges the stripes and retrieves the heaviest keys.
+   *
+   * @param k The number of keys to return.
+   * @return Up to k keys, heaviest first.
+   */
+  public List<HotKeyReport.KeyStat> top(int k) {
+    Map<String, long[]> totals = new HashMap<>(); // Key to {count, error}
+    long boundSum = 0;
+    for (SpaceSaving stripe : stripes) {
+      boundSum += stripe.addTo(totals);
+    }
+    List<HotKeyReport.KeyStat> merged = new ArrayList<>(totals.size());
+    for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+      merged.add(new HotKeyReport.KeyStat(entry.getKey(), entry.getValue()[0] + boundSum,
+              entry.getValue()[1] + boundSum));
+    }
+    merged.sort((a, b) -> {
+      int cmp = Long.compare(b.getCount(), a.getCount());
+      return cmp != 0 ? cmp : a.getKey().compareTo(b.getKey());
+    });
+    return new ArrayList<>(merged.subList(0, Math.min(k, merged.size())));
+  }
+
+  /**
+   * Halves every count of every stripe.
+   */
+  public void decay() {
+    for (SpaceSaving stripe : stripes) {
+      stripe.decay();
+    }
+  }
+}
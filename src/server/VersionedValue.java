@@ -0,0 +1,129 @@
+package server;
+
+/**
+ * One committed version of a key. Versions of the same key form a chain from newest to oldest, which
+ * readers walk without locks to find the value visible at their snapshot.
+ */
+public class VersionedValue {
+  private final String value; // The committed value, or null for a delete (tombstone)
+  private final long version; // Commit version that produced this value
+  private final long expiresAt; // Absolute expiry time in milliseconds, 0 if the value never expires
+  private final long timestamp; // Write time assigned by the originating participant, used to order replicas
+  private volatile VersionedValue previous; // Next older version, null at the end of the chain
+  private volatile boolean truncated; // true if older versions were garbage-collected
+
+  /**
+   * Constructs a VersionedValue object.
+   *
+   * @param value     The committed value, or null if the key was deleted.
+   * @param version   The commit version of the write.
+   * @param expiresAt The absolute expiry time in milliseconds, or 0 if the value never expires.
+   * @param timestamp The write time assigned by the participant that accepted the write.
+   * @param previous  The previous version of the key, or null if there is none.
+   */
+  public VersionedValue(String value, long version, long expiresAt, long timestamp, VersionedValue previous) {
+    this.value = value;
+    this.version = version;
+    this.expiresAt = expiresAt;
+    this.timestamp = timestamp;
+    this.previous = previous;
+  }
+
+  /**
+   * Retrieves the committed value.
+   *
+   * @return The value, or null if this version is a delete.
+   */
+  public String getValue() {
+    return value;
+  }
+
+  /**
+   * Retrieves the commit version of this value.
+   *
+   * @return The commit version.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Retrieves the absolute expiry time of this value.
+   *
+   * @return The expiry time in milliseconds, or 0 if the value never expires.
+   */
+  public long getExpiresAt() {
+    return expiresAt;
+  }
+
+  /**
+   * Retrieves the write time assigned by the participant that accepted the write.
+   *
+   * @return The write timestamp in milliseconds.
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Checks whether this value has passed its expiry time.
+   *
+   * @param now The current time in milliseconds.
+   * @return true if the value has a TTL that has elapsed.
+   */
+  public boolean isExpired(long now) {
+    return expiresAt > 0 && expiresAt <= now;
+  }
+
+  /**
+   * Checks whether this version records a delete.
+   *
+   * @return true if the key was deleted at this version.
+   */
+  public boolean isTombstone() {
+    return value == null;
+  }
+
+  /**
+   * Finds the version visible to a reader at the given snapshot.
+   *
+   * @param snapshotVersion The snapshot version of the reader.
+   * @return The newest version at or before the snapshot, or null if the key did not exist then.
+   * @throws IllegalStateException if the requested version has already been garbage-collected.
+   */
+  public VersionedValue visibleAt(long snapshotVersion) {
+    VersionedValue node = this;
+    while (node != null && node.version > snapshotVersion) {
+      VersionedValue older = node.previous;
+      if (older == null && node.truncated) {
+        throw new IllegalStateException("Version " + snapshotVersion + " is no longer retained");
+      }
+      node = older;
+    }
+    return node;
+  }
+
+  /**
+   * Drops the versions that no reader can see any more: everything older than the newest version at
+   * or before the watermark.
+   *
+   * @param watermark The oldest snapshot version any reader may still use.
+   * @return true if the chain still holds versions newer than the watermark.
+   */
+  public boolean prune(long watermark) {
+    VersionedValue node = this;
+    while (node.version > watermark) {
+      VersionedValue older = node.previous;
+      if (older == null) {
+        return true;
+      }
+      node = older;
+    }
+    if (node.previous != null) {
+      // Mark before unlinking so a concurrent reader that sees the cut also sees the flag
+      node.truncated = true;
+      node.previous = null;
+    }
+    return node != this;
+  }
+}